@@ -0,0 +1,61 @@
+#!/bin/bash
+
+# Virtual Threads Load Test
+# Starts the packaged application twice - platform threads, then virtual threads - and
+# drives the same read-heavy mix against each run with `hey`, printing requests/sec and
+# p99 latency side by side.
+#
+# Prerequisites: PostgreSQL from docker-compose-db.yml, `./mvnw package -DskipTests`,
+# and `hey` (https://github.com/rakyll/hey) on the PATH.
+#
+# Rate limiting (app.rate-limit.*) is switched off for both runs: every request comes
+# from this one address, so with it on the comparison would mostly measure 429s.
+#
+# Usage: ./load-test-virtual-threads.sh [requests] [concurrency]
+
+set -euo pipefail
+
+JAR="target/bootcamp-01-0.0.1-SNAPSHOT.jar"
+PORT=8081
+BASE_URL="http://localhost:$PORT"
+REQUESTS=${1:-20000}
+CONCURRENCY=${2:-400}
+
+command -v hey >/dev/null || { echo "hey is required: go install github.com/rakyll/hey@latest"; exit 1; }
+[ -f "$JAR" ] || { echo "Build the jar first: ./mvnw package -DskipTests"; exit 1; }
+
+wait_until_ready() {
+    for _ in $(seq 1 60); do
+        curl -sf "$BASE_URL/health/live" >/dev/null && return 0
+        sleep 1
+    done
+    echo "Application did not start"; exit 1
+}
+
+run() {
+    local virtual=$1
+    java -jar "$JAR" --spring.threads.virtual.enabled="$virtual" --spring.jpa.show-sql=false \
+        --app.rate-limit.enabled=false --logging.level.com.bojan.bootcamp_01=INFO >"/tmp/bootcamp-vt-$virtual.log" 2>&1 &
+    local pid=$!
+    trap 'kill $pid 2>/dev/null' EXIT
+    wait_until_ready
+
+    # seed one user to read back
+    curl -s -o /dev/null -X POST "$BASE_URL/api/users" -H 'Content-Type: application/json' \
+        -d '{"username":"loadtest_user","email":"loadtest@example.com","password":"loadtest"}' || true
+
+    hey -n 1000 -c 50 "$BASE_URL/api/users/search?username=loadtest_user" >/dev/null # warm-up
+    local out
+    out=$(hey -n "$REQUESTS" -c "$CONCURRENCY" "$BASE_URL/api/users?limit=50")
+    local rps p99
+    rps=$(echo "$out" | awk '/Requests\/sec/ {print $2}')
+    p99=$(echo "$out" | awk '/99% in/ {print $3}')
+    printf "%-16s %12s %12s\n" "virtual=$virtual" "$rps" "${p99}s"
+
+    kill $pid; wait $pid 2>/dev/null || true
+    trap - EXIT
+}
+
+printf "%-16s %12s %12s\n" "mode" "req/s" "p99"
+run false
+run true
@@ -0,0 +1,23 @@
+package com.bojan.bootcamp_01.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Pool for the benchmarks that need a real PostgreSQL server, configured with
+ * {@code -Dbench.pg.url}, {@code -Dbench.pg.user} and {@code -Dbench.pg.password}.
+ */
+final class BenchmarkPostgres {
+
+    private BenchmarkPostgres() {
+    }
+
+    static HikariDataSource dataSource(int poolSize) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(System.getProperty("bench.pg.url", "jdbc:postgresql://localhost:5432/bootcamp_bench"));
+        config.setUsername(System.getProperty("bench.pg.user", "postgres"));
+        config.setPassword(System.getProperty("bench.pg.password", "postgres"));
+        config.setMaximumPoolSize(poolSize);
+        return new HikariDataSource(config);
+    }
+}
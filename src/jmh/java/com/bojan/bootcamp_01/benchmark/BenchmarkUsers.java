@@ -0,0 +1,32 @@
+package com.bojan.bootcamp_01.benchmark;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.bojan.bootcamp_01.entity.User;
+
+/**
+ * Deterministic user fixtures shared by the benchmarks.
+ */
+final class BenchmarkUsers {
+    private BenchmarkUsers() {
+    }
+
+    static User user(int i) {
+        Instant created = Instant.parse("2025-01-01T00:00:00Z").plusSeconds(i);
+        return new User(new UUID(0x0190_0000_0000_7000L | i, 0x8000_0000_0000_0000L | i), "user_" + i,
+                "user" + i + "@example.com", "$2a$10$abcdefghijklmnopqrstuuvwxyzABCDEFGHIJKLMNOPQRSTUV012345",
+                i % 2 == 0, null, null, 0, null, null, created, created, Map.of("plan", "free", "locale", "en"), 0);
+    }
+
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(user(i));
+        }
+        return users;
+    }
+}
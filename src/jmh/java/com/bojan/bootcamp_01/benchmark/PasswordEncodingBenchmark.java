@@ -0,0 +1,56 @@
+package com.bojan.bootcamp_01.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.bojan.bootcamp_01.config.PasswordHashingProperties;
+import com.bojan.bootcamp_01.config.SecurityConfig;
+
+/**
+ * Cost of one password encode for each supported algorithm, and of BCrypt across cost
+ * factors, using the same encoder the application builds.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordEncodingBenchmark {
+
+    @Param({ "bcrypt:8", "bcrypt:10", "bcrypt:12", "argon2:10", "pbkdf2:10" })
+    public String encoder;
+
+    private PasswordEncoder passwordEncoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        String[] parts = encoder.split(":");
+        passwordEncoder = new SecurityConfig().passwordEncoder(
+                new PasswordHashingProperties(parts[0], Integer.parseInt(parts[1]), 1, 1));
+        hash = passwordEncoder.encode("correct horse battery staple");
+    }
+
+    @Benchmark
+    public String encode() {
+        return passwordEncoder.encode("correct horse battery staple");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches("correct horse battery staple", hash);
+    }
+}
@@ -0,0 +1,93 @@
+package com.bojan.bootcamp_01.benchmark;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * Samples the Hikari pool registered with {@link #watch} every millisecond and reports,
+ * per iteration, how busy it was: average and peak active connections, peak number of
+ * threads waiting for a connection, and the share of samples in which anyone was waiting.
+ * Enable with {@code -prof com.bojan.bootcamp_01.benchmark.PoolSaturationProfiler}.
+ */
+public class PoolSaturationProfiler implements InternalProfiler {
+    private static volatile HikariDataSource watched;
+
+    private ScheduledExecutorService sampler;
+    // written by the sampler thread only; read after it has been shut down
+    private long samples;
+    private long activeSum;
+    private long activeMax;
+    private long pendingMax;
+    private long waitingSamples;
+
+    /** Called from the benchmark's setup, which runs after the first iteration has started. */
+    static void watch(HikariDataSource dataSource) {
+        watched = dataSource;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Hikari connection pool saturation";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        samples = activeSum = activeMax = pendingMax = waitingSamples = 0;
+        sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "pool-saturation-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(this::sample, 0, 1, TimeUnit.MILLISECONDS);
+    }
+
+    private void sample() {
+        HikariDataSource dataSource = watched;
+        HikariPoolMXBean pool = dataSource == null ? null : dataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return;
+        }
+        int active = pool.getActiveConnections();
+        int pending = pool.getThreadsAwaitingConnection();
+        samples++;
+        activeSum += active;
+        activeMax = Math.max(activeMax, active);
+        pendingMax = Math.max(pendingMax, pending);
+        if (pending > 0) {
+            waitingSamples++;
+        }
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams,
+            IterationParams iterationParams, IterationResult result) {
+        sampler.shutdown();
+        try {
+            sampler.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (samples == 0) {
+            return List.of();
+        }
+        return List.of(
+                new ScalarResult("pool.active.avg", (double) activeSum / samples, "connections", AggregationPolicy.AVG),
+                new ScalarResult("pool.active.max", activeMax, "connections", AggregationPolicy.MAX),
+                new ScalarResult("pool.pending.max", pendingMax, "threads", AggregationPolicy.MAX),
+                new ScalarResult("pool.saturated", 100.0 * waitingSamples / samples, "%", AggregationPolicy.AVG));
+    }
+}
@@ -0,0 +1,71 @@
+package com.bojan.bootcamp_01.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bojan.bootcamp_01.dto.UserRegistrationDto;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+/**
+ * Bean validation of {@link UserRegistrationDto} for a valid payload and for one that
+ * violates every constraint.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegistrationValidationBenchmark {
+    private ValidatorFactory factory;
+    private Validator validator;
+    private UserRegistrationDto valid;
+    private UserRegistrationDto invalid;
+
+    @Setup
+    public void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+        valid = dto("valid_user", "valid@example.com", "s3cret-pass");
+        invalid = dto("x!", "not-an-email", "123");
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+
+    private static UserRegistrationDto dto(String username, String email, String password) {
+        UserRegistrationDto dto = new UserRegistrationDto();
+        dto.setUsername(username);
+        dto.setEmail(email);
+        dto.setPassword(password);
+        return dto;
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserRegistrationDto>> validPayload() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserRegistrationDto>> invalidPayload() {
+        return validator.validate(invalid);
+    }
+}
@@ -0,0 +1,82 @@
+package com.bojan.bootcamp_01.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.bojan.bootcamp_01.config.JacksonConfig;
+import com.bojan.bootcamp_01.dto.UserPage;
+import com.bojan.bootcamp_01.dto.UserView;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * CPU per {@code GET /api/users} page in each negotiable format, with plain databind
+ * ({@code databind}) and with the application's {@code UserView} streaming serializer and
+ * Blackbird ({@code streaming}). The writer carries the serialize-all filter the controller
+ * attaches. Response sizes are printed once per trial; add {@code -prof gc} for allocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationFormatBenchmark {
+
+    @Param({ "json", "smile", "cbor" })
+    public String format;
+
+    @Param({ "1", "50", "500" })
+    public int pageSize;
+
+    @Param({ "databind", "streaming" })
+    public String serializer;
+
+    private ObjectWriter writer;
+    private UserPage<UserView> page;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        JsonFactory factory = switch (format) {
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            default -> new JsonFactory();
+        };
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+        if (serializer.equals("streaming")) {
+            JacksonConfig config = new JacksonConfig();
+            builder.modulesToInstall(config.userViewModule(), config.blackbirdModule());
+        }
+        ObjectMapper mapper = builder.build();
+        writer = mapper.writer(new SimpleFilterProvider()
+                .addFilter(UserView.FILTER, SimpleBeanPropertyFilter.serializeAll()));
+        page = new UserPage<>(BenchmarkUsers.users(pageSize).stream().map(UserView::of).toList(), "cursor");
+        System.out.printf("%n# %s, %d users: %d bytes per response%n", format, pageSize,
+                writer.writeValueAsBytes(page).length);
+    }
+
+    @Benchmark
+    public byte[] viewPage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(page);
+    }
+}
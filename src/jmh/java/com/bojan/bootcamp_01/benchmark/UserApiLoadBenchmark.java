@@ -0,0 +1,201 @@
+package com.bojan.bootcamp_01.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import com.bojan.bootcamp_01.Bootcamp01Application;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Mixed read/write load on {@code /api/users} through the full HTTP stack, against a
+ * PostgreSQL seeded with {@link UserDataset}. Without {@code -Dbench.pg.url} each fork starts
+ * a throwaway Testcontainers PostgreSQL, so the suite runs anywhere Docker does; with it,
+ * the dataset is loaded once and reused (writes accumulate, so reseed a fresh database
+ * before comparing releases).
+ * <p>
+ * Throughput comes from {@code Mode.Throughput}, p50/p99/p999 from {@code Mode.SampleTime},
+ * and pool saturation from {@link PoolSaturationProfiler}:
+ * <pre>
+ * ./mvnw -B -Pbenchmark verify -DskipTests \
+ *     -Djmh.args="UserApiLoadBenchmark -foe true -prof com.bojan.bootcamp_01.benchmark.PoolSaturationProfiler"
+ * </pre>
+ * {@link Responses} splits the throughput by status class, so {@code success} is the
+ * goodput and {@code (mixed - success) / mixed} the share of requests answered with
+ * something other than 2xx. A 429 (hashing queue full) or any 5xx throws, and with
+ * {@code -foe true} fails the run, which makes the JSON result usable as a release gate.
+ * The rate limiter is off: every request comes from one client address.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class UserApiLoadBenchmark {
+    private static final long SEED = 42;
+
+    @Param({ "1000000" })
+    public long rows;
+
+    /** Share of reads; the rest are writes (70% identity updates, 30% registrations). */
+    @Param({ "95", "80", "50" })
+    public int readPercent;
+
+    @Param({ "20" })
+    public int poolSize;
+
+    @Param({ "default" })
+    public String profile;
+
+    /**
+     * Responses by status class; in {@code Mode.Throughput} each is reported as a rate
+     * next to the primary score. 404s come from the soft-deleted seed users, 409s from
+     * updates racing on one user.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Responses {
+        public long success;
+        public long notFound;
+        public long conflict;
+        public long otherClientError;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            success = notFound = conflict = otherClientError = 0;
+        }
+    }
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup
+    public void setUp() throws SQLException {
+        String url = System.getProperty("bench.pg.url");
+        String user = System.getProperty("bench.pg.user", "postgres");
+        String password = System.getProperty("bench.pg.password", "postgres");
+        if (url == null) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("bootcamp_load")
+                    .withUsername("load")
+                    .withPassword("load");
+            postgres.start();
+            url = postgres.getJdbcUrl();
+            user = postgres.getUsername();
+            password = postgres.getPassword();
+        }
+        // command-line arguments so they take precedence over application.properties
+        context = new SpringApplicationBuilder(Bootcamp01Application.class)
+                .run("--spring.profiles.active=" + profile,
+                        "--server.port=0",
+                        "--spring.datasource.url=" + url,
+                        "--spring.datasource.username=" + user,
+                        "--spring.datasource.password=" + password,
+                        "--spring.liquibase.url=" + url,
+                        "--spring.liquibase.user=" + user,
+                        "--spring.liquibase.password=" + password,
+                        "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                        "--spring.datasource.hikari.minimum-idle=" + poolSize,
+                        "--app.rate-limit.enabled=false",
+                        "--logging.level.root=WARN");
+        HikariDataSource pool = context.getBean(DataSource.class).unwrap(HikariDataSource.class);
+        if (!UserDataset.isSeeded(pool, rows, SEED)) {
+            UserDataset.copy(pool, rows, SEED);
+        }
+        PoolSaturationProfiler.watch(pool);
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/users";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        PoolSaturationProfiler.watch(null);
+        client.close();
+        context.close();
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @Benchmark
+    public int mixed(Responses responses) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        UserDataset.Row row = UserDataset.row(random.nextLong(rows), rows, SEED);
+        int pick = random.nextInt(100);
+        HttpRequest request;
+        if (pick < readPercent) {
+            int read = random.nextInt(100);
+            if (read < 60) {
+                request = get("/" + row.id());
+            } else if (read < 85) {
+                request = get("/search?username=" + row.username());
+            } else {
+                request = get("?limit=50");
+            }
+        } else if (random.nextInt(10) < 7) {
+            // flips between two addresses
+            String email = random.nextBoolean() ? row.email() : "moved." + row.email();
+            request = json("PUT", "/" + row.id(),
+                    "{\"username\":\"" + row.username() + "\",\"email\":\"" + email + "\"}");
+        } else {
+            String username = "load_" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+            request = json("POST", "", "{\"username\":\"" + username + "\",\"email\":\"" + username
+                    + "@load.test\",\"password\":\"" + UserDataset.PASSWORD + "\"}");
+        }
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status >= 500 || status == 429) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " answered " + status);
+        }
+        if (status < 400) {
+            responses.success++;
+        } else if (status == 404) {
+            responses.notFound++;
+        } else if (status == 409) {
+            responses.conflict++;
+        } else {
+            responses.otherClientError++;
+        }
+        return status;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest json(String method, String path, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
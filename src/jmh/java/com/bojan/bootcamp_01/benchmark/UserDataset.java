@@ -0,0 +1,177 @@
+package com.bojan.bootcamp_01.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Reproducible {@code users} dataset loaded with {@code COPY}. Row {@code i} depends only on
+ * the seed, its index and the row count, so a scenario can rebuild any row's id, username
+ * and email without reading them back. Every seeded user has the password {@link #PASSWORD}.
+ * <p>
+ * Standalone, against {@code -Dbench.pg.url} (see {@link BenchmarkPostgres}):
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.bojan.bootcamp_01.benchmark.UserDataset -Dexec.args="5000000 42"
+ * </pre>
+ * The schema must already be migrated; the load goes into whatever {@code users} is, so
+ * the partitioning mirror trigger and every index are maintained as in production.
+ */
+public final class UserDataset {
+    static final String PASSWORD = "Load-test-passw0rd";
+
+    private static final String COPY_SQL = "COPY users (id, username, email, password_hash, email_verified, "
+            + "failed_login_attempts, deleted_at, created_at, updated_at, metadata, version) FROM STDIN";
+    private static final long FIRST_CREATED = Instant.parse("2020-01-01T00:00:00Z").toEpochMilli();
+    private static final long CREATED_SPAN = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli() - FIRST_CREATED;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final int FLUSH_BYTES = 1 << 20;
+
+    private static final String[] FIRST_NAMES = { "ana", "bojan", "marko", "jelena", "nikola", "milica", "stefan",
+            "ivana", "luka", "maria", "james", "olivia", "noah", "emma", "liam", "sofia", "lucas", "mia", "yuki",
+            "hiro", "chen", "wei", "fatima", "omar", "priya", "arjun", "lea", "jonas", "elena", "mateo" };
+    private static final String[] LAST_NAMES = { "petrovic", "jovanovic", "nikolic", "markovic", "smith", "johnson",
+            "brown", "garcia", "muller", "schmidt", "rossi", "bianchi", "martin", "bernard", "tanaka", "suzuki",
+            "wang", "li", "khan", "patel", "silva", "santos", "novak", "horvat", "kowalski", "nowak" };
+    // weighted towards a few large providers, like real sign-ups
+    private static final String[] DOMAINS = { "gmail.test", "gmail.test", "gmail.test", "gmail.test",
+            "outlook.test", "outlook.test", "yahoo.test", "icloud.test", "proton.test", "example.com",
+            "example.org", "acme.test" };
+    private static final String[] PLANS = { "free", "free", "free", "free", "free", "free", "pro", "pro", "team" };
+    private static final String[] LOCALES = { "en", "en", "en", "en", "de", "fr", "es", "sr", "ja", "pt" };
+
+    private UserDataset() {
+    }
+
+    record Row(UUID id, String username, String email, boolean emailVerified, int failedLoginAttempts,
+            Long deletedAt, long createdAt, long updatedAt, String metadata, long version) {
+    }
+
+    static Row row(long i, long rows, long seed) {
+        SplittableRandom random = new SplittableRandom(seed * 0x9E37_79B9_7F4A_7C15L + i);
+        long step = Math.max(1, CREATED_SPAN / rows);
+        long createdAt = FIRST_CREATED + i * step + random.nextLong(step);
+        // UUIDv7 layout, so the key order follows created_at like ids from UuidV7Generator
+        UUID id = new UUID((createdAt << 16) | 0x7000L | random.nextLong(0x1000),
+                (random.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L);
+        String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String username = first + "_" + last + "_" + i;
+        String email = first + "." + last + "." + i + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+        boolean emailVerified = random.nextInt(100) < 85;
+        int failedLoginAttempts = random.nextInt(100) < 90 ? 0 : 1 + random.nextInt(4);
+        long updatedAt = createdAt + random.nextLong(30L * 24 * 3600 * 1000);
+        Long deletedAt = random.nextInt(100) < 3 ? updatedAt : null;
+        String metadata = random.nextInt(100) < 20 ? null
+                : "{\"plan\": \"" + PLANS[random.nextInt(PLANS.length)] + "\", \"locale\": \""
+                        + LOCALES[random.nextInt(LOCALES.length)] + "\", \"newsletter\": " + random.nextBoolean() + "}";
+        return new Row(id, username, email, emailVerified, failedLoginAttempts, deletedAt, createdAt, updatedAt,
+                metadata, random.nextInt(4));
+    }
+
+    /** Whether row 0 of this dataset is already in {@code users}. */
+    static boolean isSeeded(DataSource dataSource, long rows, long seed) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement ps = connection.prepareStatement("SELECT 1 FROM users WHERE id = ?")) {
+            ps.setObject(1, row(0, rows, seed).id());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /** Loads {@code rows} users in one {@code COPY} and analyzes the table; returns the rows written. */
+    static long copy(DataSource dataSource, long rows, long seed) throws SQLException {
+        // one hash for everyone: hashing millions of passwords would dominate the load
+        String passwordHash = "{bcrypt}" + new BCryptPasswordEncoder(10).encode(PASSWORD);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            long written;
+            try {
+                StringBuilder buffer = new StringBuilder(FLUSH_BYTES + 4096);
+                for (long i = 0; i < rows; i++) {
+                    append(buffer, row(i, rows, seed), passwordHash);
+                    if (buffer.length() >= FLUSH_BYTES) {
+                        write(copy, buffer);
+                    }
+                }
+                write(copy, buffer);
+                written = copy.endCopy();
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+            connection.commit();
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE users");
+            }
+            return written;
+        }
+    }
+
+    private static void append(StringBuilder buffer, Row row, String passwordHash) {
+        // COPY text format: tab-separated, \N for null; no generated value contains a tab,
+        // newline or backslash, so nothing needs escaping
+        buffer.append(row.id()).append('\t')
+                .append(row.username()).append('\t')
+                .append(row.email()).append('\t')
+                .append(passwordHash).append('\t')
+                .append(row.emailVerified() ? 't' : 'f').append('\t')
+                .append(row.failedLoginAttempts()).append('\t')
+                .append(row.deletedAt() == null ? "\\N" : timestamp(row.deletedAt())).append('\t')
+                .append(timestamp(row.createdAt())).append('\t')
+                .append(timestamp(row.updatedAt())).append('\t')
+                .append(row.metadata() == null ? "\\N" : row.metadata()).append('\t')
+                .append(row.version()).append('\n');
+    }
+
+    private static String timestamp(long epochMillis) {
+        return TIMESTAMP.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC));
+    }
+
+    private static void write(CopyIn copy, StringBuilder buffer) throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    /** {@code UserDataset <rows> [seed]}; skips the load when the dataset is already there. */
+    public static void main(String[] args) throws SQLException {
+        if (args.length < 1) {
+            System.err.println("usage: UserDataset <rows> [seed]");
+            System.exit(2);
+        }
+        long rows = Long.parseLong(args[0]);
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        try (HikariDataSource dataSource = BenchmarkPostgres.dataSource(1)) {
+            if (isSeeded(dataSource, rows, seed)) {
+                System.out.printf("users already holds %d rows for seed %d%n", rows, seed);
+                return;
+            }
+            long start = System.nanoTime();
+            long written = copy(dataSource, rows, seed);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("copied %d users in %.1f s (%.0f rows/s)%n", written, seconds, written / seconds);
+        }
+    }
+}
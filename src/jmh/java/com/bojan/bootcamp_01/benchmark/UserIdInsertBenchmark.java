@@ -0,0 +1,111 @@
+package com.bojan.bootcamp_01.benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bojan.bootcamp_01.util.UuidV7;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Insert throughput into a {@code users}-shaped table keyed by random v4 vs time-ordered v7
+ * UUIDs, on top of an already populated table so the primary key no longer fits in
+ * shared buffers. The table is recreated for every trial and the primary key size is
+ * printed at the end; with v4 it grows noticeably faster than the row count because of
+ * page splits. Needs a real PostgreSQL, see {@link BenchmarkPostgres}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class UserIdInsertBenchmark {
+    private static final int BATCH = 100;
+    private static final String V4_SQL = "gen_random_uuid()";
+    // same construction as uuid_generate_v7() in changeSet 12, with a timestamp that grows with g
+    private static final String V7_SQL = "encode(set_bit(set_bit(overlay(uuid_send(gen_random_uuid()) "
+            + "PLACING substring(int8send((floor(extract(epoch FROM now()) * 1000)::bigint - %1$d + g)) FROM 3) "
+            + "FROM 1 FOR 6), 52, 1), 53, 1), 'hex')::uuid";
+
+    @Param({ "v4", "v7" })
+    public String idScheme;
+
+    @Param({ "10000000" })
+    public long preloaded;
+
+    private HikariDataSource dataSource;
+    private Supplier<UUID> ids;
+
+    @Setup
+    public void setUp() throws SQLException {
+        dataSource = BenchmarkPostgres.dataSource(4);
+        ids = "v7".equals(idScheme) ? UuidV7::next : UUID::randomUUID;
+        String seedId = "v7".equals(idScheme) ? String.format(V7_SQL, preloaded) : V4_SQL;
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_ids");
+            statement.execute("CREATE TABLE bench_ids (id UUID PRIMARY KEY, username VARCHAR(50) NOT NULL, "
+                    + "email VARCHAR(255) NOT NULL, password_hash VARCHAR(255) NOT NULL, created_at TIMESTAMP NOT NULL)");
+            statement.execute("INSERT INTO bench_ids SELECT " + seedId + ", 'seed_' || g, 'seed' || g || "
+                    + "'@example.com', 'x', now() FROM generate_series(1, " + preloaded + ") g");
+            statement.execute("VACUUM ANALYZE bench_ids");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT count(*), pg_relation_size('bench_ids_pkey') "
+                        + "FROM bench_ids")) {
+            rs.next();
+            System.out.printf("%n%s: %d rows, primary key %d MB%n", idScheme, rs.getLong(1),
+                    rs.getLong(2) / (1024 * 1024));
+        }
+        dataSource.close();
+    }
+
+    /**
+     * One committed batch of {@value #BATCH} rows; multiply the score by the batch size for rows/s.
+     */
+    @Benchmark
+    public int[] insertBatch() throws SQLException {
+        Timestamp now = Timestamp.from(Instant.now());
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement ps = connection.prepareStatement("INSERT INTO bench_ids VALUES (?, ?, ?, 'x', ?)")) {
+            connection.setAutoCommit(false);
+            for (int i = 0; i < BATCH; i++) {
+                UUID id = ids.get();
+                ps.setObject(1, id);
+                ps.setString(2, "u_" + id.toString().substring(0, 30));
+                ps.setString(3, id + "@example.com");
+                ps.setTimestamp(4, now);
+                ps.addBatch();
+            }
+            int[] counts = ps.executeBatch();
+            connection.commit();
+            return counts;
+        }
+    }
+}
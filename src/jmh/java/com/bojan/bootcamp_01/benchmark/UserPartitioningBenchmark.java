@@ -0,0 +1,187 @@
+package com.bojan.bootcamp_01.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Plain vs hash-partitioned {@code users} layout at 10M/100M rows against a real PostgreSQL
+ * server, using the same table shape and lookup paths as changeSets 10/11. Needs
+ * {@code -Dbench.pg.url=jdbc:postgresql://host/db} (plus {@code bench.pg.user}/{@code bench.pg.password});
+ * the tables are seeded once with {@code generate_series} and reused on later runs, so the
+ * first run at 100M rows takes a while and needs roughly 40 GB of disk.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserPartitioningBenchmark {
+
+    @Param({ "10000000", "100000000" })
+    public long rows;
+
+    @Param({ "plain", "hash" })
+    public String layout;
+
+    private HikariDataSource dataSource;
+    private String table;
+    private String lookupByUsernameSql;
+
+    @Setup
+    public void setUp() throws SQLException {
+        dataSource = BenchmarkPostgres.dataSource(4);
+        table = "bench_users_" + layout + "_" + rows;
+        lookupByUsernameSql = "hash".equals(layout)
+                ? "SELECT u.* FROM " + table + " u WHERE u.id = (SELECT user_id FROM " + table
+                        + "_keys WHERE key_type = 'u' AND key_value = ?)"
+                : "SELECT * FROM " + table + " WHERE username = ?";
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            ResultSet exists = statement.executeQuery("SELECT to_regclass('" + table + "') IS NOT NULL");
+            exists.next();
+            if (!exists.getBoolean(1)) {
+                seed(statement);
+            }
+        }
+    }
+
+    private void seed(Statement statement) throws SQLException {
+        String partitioning = "hash".equals(layout) ? " PARTITION BY HASH (id)" : "";
+        statement.execute("CREATE TABLE " + table + " (id UUID PRIMARY KEY, username VARCHAR(50) NOT NULL, "
+                + "email VARCHAR(255) NOT NULL, password_hash VARCHAR(255) NOT NULL, "
+                + "created_at TIMESTAMP NOT NULL, deleted_at TIMESTAMP)" + partitioning);
+        if ("hash".equals(layout)) {
+            for (int i = 0; i < 16; i++) {
+                statement.execute(String.format("CREATE TABLE %1$s_%2$02d PARTITION OF %1$s "
+                        + "FOR VALUES WITH (MODULUS 16, REMAINDER %2$d)", table, i));
+            }
+        }
+        statement.execute("INSERT INTO " + table + " SELECT md5(g::text)::uuid, 'user_' || g, "
+                + "'user' || g || '@example.com', 'x', now() - g * interval '1 millisecond', NULL "
+                + "FROM generate_series(1, " + rows + ") g");
+        if ("hash".equals(layout)) {
+            statement.execute("CREATE TABLE " + table + "_keys (key_type CHAR(1) NOT NULL, "
+                    + "key_value VARCHAR(255) NOT NULL, user_id UUID NOT NULL, PRIMARY KEY (key_type, key_value))");
+            statement.execute("INSERT INTO " + table + "_keys SELECT 'u', username, id FROM " + table
+                    + " UNION ALL SELECT 'e', email, id FROM " + table);
+        } else {
+            statement.execute("CREATE UNIQUE INDEX ON " + table + " (username)");
+            statement.execute("CREATE UNIQUE INDEX ON " + table + " (email)");
+        }
+        statement.execute("CREATE INDEX ON " + table + " (created_at, id) WHERE deleted_at IS NULL");
+        statement.execute("ANALYZE " + table);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    private static long randomRow(long bound) {
+        return ThreadLocalRandom.current().nextLong(1, bound + 1);
+    }
+
+    @Benchmark
+    public boolean lookupById() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement ps = connection.prepareStatement("SELECT * FROM " + table + " WHERE id = ?::uuid")) {
+            ps.setString(1, md5Uuid(randomRow(rows)));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean lookupByUsername() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement ps = connection.prepareStatement(lookupByUsernameSql)) {
+            ps.setString(1, "user_" + randomRow(rows));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    @Benchmark
+    public int insert() throws SQLException {
+        UUID id = UUID.randomUUID();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            int inserted;
+            try (PreparedStatement ps = connection.prepareStatement("INSERT INTO " + table
+                    + " VALUES (?, ?, ?, 'x', now(), NULL)")) {
+                ps.setObject(1, id);
+                ps.setString(2, "bench_" + id);
+                ps.setString(3, id + "@bench.example.com");
+                inserted = ps.executeUpdate();
+            }
+            if ("hash".equals(layout)) {
+                try (PreparedStatement ps = connection.prepareStatement("INSERT INTO " + table
+                        + "_keys VALUES ('u', ?, ?), ('e', ?, ?)")) {
+                    ps.setString(1, "bench_" + id);
+                    ps.setObject(2, id);
+                    ps.setString(3, id + "@bench.example.com");
+                    ps.setObject(4, id);
+                    ps.executeUpdate();
+                }
+            }
+            // keep the seeded row count stable across iterations
+            connection.rollback();
+            return inserted;
+        }
+    }
+
+    @Benchmark
+    public int firstKeysetPage() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement ps = connection.prepareStatement("SELECT id, username, email, created_at FROM "
+                        + table + " WHERE deleted_at IS NULL ORDER BY created_at, id LIMIT 50");
+                ResultSet rs = ps.executeQuery()) {
+            int count = 0;
+            while (rs.next()) {
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /** Same id as {@code md5(g::text)::uuid} in the seed statement. */
+    private static String md5Uuid(long g) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5")
+                    .digest(Long.toString(g).getBytes(StandardCharsets.US_ASCII));
+            StringBuilder hex = new StringBuilder(32);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.bojan.bootcamp_01.benchmark;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import com.bojan.bootcamp_01.dto.UserView;
+import com.bojan.bootcamp_01.entity.User;
+import com.bojan.bootcamp_01.repository.UserRepository;
+
+/**
+ * {@link UserRepository} lookups against an embedded H2 database in PostgreSQL mode.
+ * Absolute numbers are lower than against a real server; the benchmark is meant to catch
+ * regressions in query shape and Hibernate overhead between releases. {@code profile}
+ * compares the default settings with the {@code l2cache} profile; its PostgreSQL driver
+ * settings do not apply to H2, so a real server gains a little more on cache misses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserRepositoryBenchmark {
+
+    @Param({ "10000" })
+    public int rows;
+
+    @Param({ "default", "l2cache" })
+    public String profile;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private List<UUID> ids;
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = User.class)
+    @EnableJpaRepositories(basePackageClasses = UserRepository.class)
+    static class RepositoryContext {
+    }
+
+    @Setup
+    public void setUp() {
+        // command-line arguments so they take precedence over application.properties
+        context = new SpringApplicationBuilder(RepositoryContext.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=" + profile,
+                        "--spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.liquibase.enabled=false",
+                        "--management.endpoint.health.validate-group-membership=false",
+                        "--logging.level.root=WARN");
+        userRepository = context.getBean(UserRepository.class);
+        List<User> seed = BenchmarkUsers.users(rows);
+        seed.forEach(user -> user.setId(null));
+        ids = userRepository.saveAll(seed).stream().map(User::getId).toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(rows);
+    }
+
+    @Benchmark
+    public Optional<User> findById() {
+        return userRepository.findById(ids.get(randomIndex()));
+    }
+
+    @Benchmark
+    public Optional<User> findByUsername() {
+        return userRepository.findByUsername("user_" + randomIndex());
+    }
+
+    @Benchmark
+    public Optional<User> findByEmail() {
+        return userRepository.findByEmail("user" + randomIndex() + "@example.com");
+    }
+
+    @Benchmark
+    public Optional<User> findActiveByUsername() {
+        return userRepository.findActiveByUsername("user_" + randomIndex());
+    }
+
+    @Benchmark
+    public Optional<User> findActiveByEmail() {
+        return userRepository.findActiveByEmail("user" + randomIndex() + "@example.com");
+    }
+
+    @Benchmark
+    public boolean existsByEmail() {
+        return userRepository.existsByEmail("user" + randomIndex() + "@example.com");
+    }
+
+    @Benchmark
+    public boolean existsByUsername() {
+        return userRepository.existsByUsername("user_" + randomIndex());
+    }
+
+    @Benchmark
+    public Optional<UserView> findViewById() {
+        return userRepository.findViewById(ids.get(randomIndex()));
+    }
+
+    @Benchmark
+    public List<UserView> firstKeysetPage() {
+        return userRepository.findActiveViews(Limit.of(50));
+    }
+}
@@ -0,0 +1,78 @@
+package com.bojan.bootcamp_01.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.bojan.bootcamp_01.dto.UserPage;
+import com.bojan.bootcamp_01.dto.UserView;
+import com.bojan.bootcamp_01.entity.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+/**
+ * Jackson serialization of a single user and of keyset pages, as full entities and as
+ * {@link UserView}s, configured the way Spring MVC configures its message converter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserSerializationBenchmark {
+
+    @Param({ "10", "50", "500" })
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private User user;
+    private UserPage<User> page;
+    private UserView view;
+    private UserPage<UserView> viewPage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false))
+                .build();
+        user = BenchmarkUsers.user(1);
+        List<User> users = BenchmarkUsers.users(pageSize);
+        page = new UserPage<>(users, "cursor");
+        view = UserView.of(user);
+        viewPage = new UserPage<>(users.stream().map(UserView::of).toList(), "cursor");
+    }
+
+    @Benchmark
+    public byte[] singleUser() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] userPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] singleView() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(view);
+    }
+
+    @Benchmark
+    public byte[] viewPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(viewPage);
+    }
+}
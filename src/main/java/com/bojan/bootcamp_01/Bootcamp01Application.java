@@ -2,12 +2,18 @@ package com.bojan.bootcamp_01;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 
 @SpringBootApplication
 public class Bootcamp01Application {
 
 	public static void main(String[] args) {
-		SpringApplication.run(Bootcamp01Application.class, args);
+		ConfigurableApplicationContext context = SpringApplication.run(Bootcamp01Application.class, args);
+		if (context.getEnvironment().matchesProfiles("migrate")) {
+			// Liquibase has run during startup; closing stops the lifecycle beans (health
+			// sampler, login attempt writer, event feed) so the job exits instead of idling
+			System.exit(SpringApplication.exit(context));
+		}
 	}
 
 }
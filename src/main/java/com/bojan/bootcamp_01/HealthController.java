@@ -2,16 +2,20 @@ package com.bojan.bootcamp_01;
 
 import java.time.Instant;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.bojan.bootcamp_01.service.HealthSampler;
+
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -51,34 +55,43 @@ public class HealthController {
 
     // OpenAPI annotations removed due to invalid location error
     @Autowired
-    private JdbcTemplate jdbcTemplate;
+    private HealthSampler healthSampler;
 
+    /**
+     * Serves the last background sample instead of running a query, so the probe answers
+     * immediately even when every pooled connection is busy.
+     */
     @GetMapping("/database")
     public ResponseEntity<Map<String, Object>> databaseHealth() {
+        Health database = healthSampler.health(HealthSampler.DATABASE);
+        boolean up = Status.UP.equals(database.getStatus());
+        Map<String, Object> details = new HashMap<>();
+        details.put("status", database.getStatus().getCode());
+        details.put("type", "PostgreSQL");
+        details.put("connectionStatus", up ? "CONNECTED" : "FAILED");
+        details.putAll(database.getDetails());
         Map<String, Object> response = new HashMap<>();
         response.put("timestamp", Instant.now());
-        try {
-            Integer result = jdbcTemplate.queryForObject("SELECT 1", Integer.class);
-            if (result != null && result == 1) {
-                response.put("status", "UP");
-                response.put("database", Map.of(
-                        "status", "UP",
-                        "type", "PostgreSQL",
-                        "connectionStatus", "CONNECTED",
-                        "details", "Database is accessible and responsive"));
-                return ResponseEntity.ok(response);
-            } else {
-                throw new RuntimeException("Unexpected DB result");
-            }
-        } catch (Exception e) {
-            response.put("status", "DOWN");
-            response.put("database", Map.of(
-                    "status", "DOWN",
-                    "type", "PostgreSQL",
-                    "connectionStatus", "FAILED",
-                    "error", e.getMessage(),
-                    "details", "Database connection failed"));
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        response.put("sampledAt", healthSampler.sampledAt());
+        response.put("status", up ? "UP" : "DOWN");
+        response.put("database", details);
+        return up ? ResponseEntity.ok(response) : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
+    @GetMapping("/ready")
+    public ResponseEntity<Map<String, Object>> readiness() {
+        Map<String, Object> checks = new HashMap<>();
+        boolean ready = true;
+        for (String component : List.of(HealthSampler.DATABASE, HealthSampler.CONNECTION_POOL,
+                HealthSampler.PASSWORD_HASHING)) {
+            Status status = healthSampler.health(component).getStatus();
+            checks.put(component, status.getCode());
+            ready &= !Status.DOWN.equals(status) && !Status.OUT_OF_SERVICE.equals(status);
         }
+        Map<String, Object> response = Map.of(
+                "status", ready ? "UP" : "DOWN",
+                "timestamp", Instant.now(),
+                "checks", checks);
+        return ready ? ResponseEntity.ok(response) : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
     }
 }
@@ -0,0 +1,142 @@
+package com.bojan.bootcamp_01.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Fair semaphore in front of the connection pool. With virtual threads there can be far
+ * more concurrent requests than connections; queuing them here in FIFO order (with a
+ * bounded wait) is cheaper than letting them all race for Hikari and time out.
+ * <p>
+ * A permit is held from {@code getConnection()} until the connection is closed, so a
+ * transaction that reuses its bound connection never needs a second permit.
+ */
+public class DbConcurrencyLimiter implements MeterBinder {
+    private final Semaphore permits;
+    private final long timeoutNanos;
+
+    public DbConcurrencyLimiter(DbLimiterProperties properties) {
+        this.permits = new Semaphore(properties.permits(), true);
+        this.timeoutNanos = properties.acquireTimeout().toNanos();
+    }
+
+    public DataSource wrap(DataSource dataSource) {
+        return new LimitingDataSource(dataSource);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("db.limiter.waiting", permits, Semaphore::getQueueLength)
+                .description("Threads queued for a database permit")
+                .register(registry);
+        Gauge.builder("db.limiter.available", permits, Semaphore::availablePermits)
+                .description("Database permits currently free")
+                .register(registry);
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException("Timed out waiting for a database permit");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted waiting for a database permit", e);
+        }
+    }
+
+    private Connection guard(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new PermitReleasingHandler(connection));
+    }
+
+    private final class LimitingDataSource extends DelegatingDataSource {
+        LimitingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            acquire();
+            try {
+                return guard(super.getConnection());
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            acquire();
+            try {
+                return guard(super.getConnection(username, password));
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+    }
+
+    private final class PermitReleasingHandler implements InvocationHandler {
+        private final Connection target;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        PermitReleasingHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    try {
+                        target.close();
+                    } finally {
+                        if (released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                    return null;
+                }
+                case "unwrap" -> {
+                    Class<?> type = (Class<?>) args[0];
+                    return type.isInstance(proxy) ? proxy : target.unwrap(type);
+                }
+                case "isWrapperFor" -> {
+                    Class<?> type = (Class<?>) args[0];
+                    return type.isInstance(proxy) || target.isWrapperFor(type);
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                }
+            }
+        }
+    }
+}
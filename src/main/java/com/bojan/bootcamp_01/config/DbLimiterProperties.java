@@ -0,0 +1,22 @@
+package com.bojan.bootcamp_01.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Database concurrency limiter settings bound from {@code app.db.limiter.*}.
+ *
+ * @param enabled        gate connection checkout behind a fair semaphore
+ * @param permits        concurrent connections allowed; should not exceed the Hikari pool size
+ * @param acquireTimeout how long a caller queues for a permit before failing fast
+ */
+@ConfigurationProperties(prefix = "app.db.limiter")
+public record DbLimiterProperties(Boolean enabled, Integer permits, Duration acquireTimeout) {
+
+    public DbLimiterProperties {
+        enabled = enabled != null && enabled;
+        permits = permits == null ? 20 : permits;
+        acquireTimeout = acquireTimeout == null ? Duration.ofSeconds(5) : acquireTimeout;
+    }
+}
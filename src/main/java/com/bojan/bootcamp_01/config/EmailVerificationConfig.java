@@ -0,0 +1,41 @@
+package com.bojan.bootcamp_01.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.bojan.bootcamp_01.service.EmailVerificationSender;
+import com.bojan.bootcamp_01.service.EmailVerificationSweeper;
+import com.bojan.bootcamp_01.service.EmailVerificationTokens;
+import com.bojan.bootcamp_01.service.LoggingEmailVerificationSender;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties(EmailVerificationProperties.class)
+public class EmailVerificationConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(EmailVerificationSender.class)
+    public LoggingEmailVerificationSender loggingEmailVerificationSender() {
+        return new LoggingEmailVerificationSender();
+    }
+
+    @Configuration
+    @EnableScheduling
+    @ConditionalOnProperty(name = "app.users.verification.sweeper-enabled", havingValue = "true")
+    static class SweeperConfig {
+
+        @Bean
+        public EmailVerificationSweeper emailVerificationSweeper(JdbcTemplate jdbcTemplate,
+                PlatformTransactionManager transactionManager, EmailVerificationTokens tokens,
+                EmailVerificationProperties properties, MeterRegistry meterRegistry) {
+            return new EmailVerificationSweeper(jdbcTemplate, transactionManager, tokens, properties, meterRegistry);
+        }
+    }
+}
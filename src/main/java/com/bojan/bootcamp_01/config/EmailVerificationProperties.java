@@ -0,0 +1,30 @@
+package com.bojan.bootcamp_01.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Email verification settings bound from {@code app.users.verification.*}.
+ *
+ * @param tokenTtl       how long an issued token can verify the address
+ * @param sweeperEnabled schedule {@code EmailVerificationSweeper} on this node
+ * @param sweepInterval  delay between sweeps
+ * @param reissueWithin  accounts younger than this get a fresh token when theirs expires;
+ *                       older ones only have the token cleared
+ * @param batchSize      users handled per transaction
+ * @param maxBatches     batches per sweep; the next sweep continues where this one stopped
+ */
+@ConfigurationProperties(prefix = "app.users.verification")
+public record EmailVerificationProperties(Duration tokenTtl, Boolean sweeperEnabled, Duration sweepInterval,
+        Duration reissueWithin, Integer batchSize, Integer maxBatches) {
+
+    public EmailVerificationProperties {
+        tokenTtl = tokenTtl == null ? Duration.ofHours(24) : tokenTtl;
+        sweeperEnabled = sweeperEnabled != null && sweeperEnabled;
+        sweepInterval = sweepInterval == null ? Duration.ofMinutes(5) : sweepInterval;
+        reissueWithin = reissueWithin == null ? Duration.ofDays(7) : reissueWithin;
+        batchSize = batchSize == null ? 500 : batchSize;
+        maxBatches = maxBatches == null ? 100 : maxBatches;
+    }
+}
@@ -0,0 +1,42 @@
+package com.bojan.bootcamp_01.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.bojan.bootcamp_01.service.HealthSampler;
+import com.bojan.bootcamp_01.service.PasswordHashingService;
+
+/**
+ * Exposes the {@link HealthSampler} snapshot as actuator health indicators so the
+ * readiness group is served from memory. The indicator names are the ones listed in
+ * {@code management.endpoint.health.group.readiness.include}.
+ */
+@Configuration
+@EnableConfigurationProperties(HealthSamplerProperties.class)
+public class HealthConfig {
+
+    @Bean
+    public HealthSampler healthSampler(DataSource dataSource, PasswordHashingService passwordHashingService,
+            HealthSamplerProperties properties) {
+        return new HealthSampler(dataSource, passwordHashingService, properties);
+    }
+
+    @Bean
+    public HealthIndicator databaseHealthIndicator(HealthSampler healthSampler) {
+        return () -> healthSampler.health(HealthSampler.DATABASE);
+    }
+
+    @Bean
+    public HealthIndicator connectionPoolHealthIndicator(HealthSampler healthSampler) {
+        return () -> healthSampler.health(HealthSampler.CONNECTION_POOL);
+    }
+
+    @Bean
+    public HealthIndicator passwordHashingHealthIndicator(HealthSampler healthSampler) {
+        return () -> healthSampler.health(HealthSampler.PASSWORD_HASHING);
+    }
+}
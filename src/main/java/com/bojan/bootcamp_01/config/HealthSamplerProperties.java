@@ -0,0 +1,30 @@
+package com.bojan.bootcamp_01.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Background health sampling settings bound from {@code app.health.sampler.*}.
+ *
+ * @param interval              delay between the end of one sample and the start of the next
+ * @param timeout               upper bound on the database check, including pool checkout
+ * @param staleAfter            age after which a snapshot is reported as DOWN, so a stuck
+ *                              sampler cannot keep the pod ready
+ * @param poolMaxWaiting        threads waiting for a connection before the pool is reported
+ *                              out of service
+ * @param hashingQueueThreshold fraction of the hashing queue in use before it is reported
+ *                              out of service
+ */
+@ConfigurationProperties(prefix = "app.health.sampler")
+public record HealthSamplerProperties(Duration interval, Duration timeout, Duration staleAfter,
+        Integer poolMaxWaiting, Double hashingQueueThreshold) {
+
+    public HealthSamplerProperties {
+        interval = interval == null ? Duration.ofSeconds(5) : interval;
+        timeout = timeout == null ? Duration.ofSeconds(1) : timeout;
+        staleAfter = staleAfter == null ? Duration.ofSeconds(30) : staleAfter;
+        poolMaxWaiting = poolMaxWaiting == null ? 40 : poolMaxWaiting;
+        hashingQueueThreshold = hashingQueueThreshold == null ? 0.9 : hashingQueueThreshold;
+    }
+}
@@ -0,0 +1,23 @@
+package com.bojan.bootcamp_01.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.bojan.bootcamp_01.service.UserSecondLevelCache;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Active with the {@code l2cache} profile, which turns on Hibernate's second-level and
+ * query caches; see {@code application-l2cache.properties}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.cache.use_second_level_cache", havingValue = "true")
+public class HibernateCacheConfig {
+
+    @Bean
+    public UserSecondLevelCache userSecondLevelCache(EntityManagerFactory entityManagerFactory) {
+        return new UserSecondLevelCache(entityManagerFactory);
+    }
+}
@@ -0,0 +1,81 @@
+package com.bojan.bootcamp_01.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.bojan.bootcamp_01.dto.UserView;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Lets types annotated with {@code @JsonFilter} (such as {@code UserView}) serialize
+     * with all properties when no per-request filter is supplied.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer lenientJsonFilters() {
+        return builder -> builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    /**
+     * Streams {@link UserView}s, the bulk of every list response, through {@link UserViewSerializer}.
+     */
+    @Bean
+    public Module userViewModule() {
+        return new SimpleModule("UserViewModule").setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc,
+                    JsonSerializer<?> serializer) {
+                return beanDesc.getBeanClass() == UserView.class
+                        ? new UserViewSerializer((JsonSerializer<Object>) serializer)
+                        : serializer;
+            }
+        });
+    }
+
+    /**
+     * Replaces reflective getter and field access with generated lambdas for every other type.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.jackson.blackbird-enabled", havingValue = "true")
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    /**
+     * {@code application/cbor} and {@code application/x-jackson-smile} for service-to-service
+     * callers. Both mappers come from Boot's builder, so they share the JSON mapper's modules,
+     * date handling and filters; Spring MVC's own binary converters would not.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "app.jackson.binary-formats-enabled", havingValue = "true")
+    static class BinaryFormatsConfig {
+
+        @Bean
+        public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+            return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+        }
+
+        @Bean
+        public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+                Jackson2ObjectMapperBuilder builder) {
+            return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+        }
+    }
+}
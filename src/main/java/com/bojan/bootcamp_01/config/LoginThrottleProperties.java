@@ -0,0 +1,33 @@
+package com.bojan.bootcamp_01.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Login throttling settings bound from {@code app.security.login.*}.
+ *
+ * @param maxAccountFailures failed logins per account within {@code accountWindow} that
+ *                           lock the account
+ * @param accountWindow      sliding window for per-account failures
+ * @param lockoutDuration    how long a locked account is rejected without checking the password
+ * @param maxIpFailures      failed logins per client IP within {@code ipWindow} before
+ *                           further attempts get 429
+ * @param ipWindow           sliding window for per-IP failures
+ * @param stripes            counter slots per table; a power of two
+ * @param flushInterval      delay between write-behind flushes to the {@code users} table
+ */
+@ConfigurationProperties(prefix = "app.security.login")
+public record LoginThrottleProperties(Integer maxAccountFailures, Duration accountWindow, Duration lockoutDuration,
+        Integer maxIpFailures, Duration ipWindow, Integer stripes, Duration flushInterval) {
+
+    public LoginThrottleProperties {
+        maxAccountFailures = maxAccountFailures == null ? 5 : maxAccountFailures;
+        accountWindow = accountWindow == null ? Duration.ofMinutes(15) : accountWindow;
+        lockoutDuration = lockoutDuration == null ? Duration.ofMinutes(15) : lockoutDuration;
+        maxIpFailures = maxIpFailures == null ? 50 : maxIpFailures;
+        ipWindow = ipWindow == null ? Duration.ofMinutes(1) : ipWindow;
+        stripes = stripes == null ? 65_536 : stripes;
+        flushInterval = flushInterval == null ? Duration.ofSeconds(1) : flushInterval;
+    }
+}
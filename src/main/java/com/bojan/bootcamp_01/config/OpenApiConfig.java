@@ -1,5 +1,8 @@
 package com.bojan.bootcamp_01.config;
 
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -10,6 +13,30 @@ import io.swagger.v3.oas.models.info.License;
 
 @Configuration
 public class OpenApiConfig {
+    private static final String SPRINGDOC_PACKAGE = "org.springdoc.";
+
+    /**
+     * Marks every springdoc bean, and the {@link OpenAPI} definition below, lazy so the
+     * cost of scanning controllers is paid on the first documentation request instead of
+     * at startup. Bean definitions are only flagged, so this also holds in an AOT build.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.startup.lazy-openapi", havingValue = "true")
+    public static BeanFactoryPostProcessor lazyOpenApiBeans() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                String declaringClass = definition.getFactoryBeanName() != null
+                        && beanFactory.containsBeanDefinition(definition.getFactoryBeanName())
+                        ? beanFactory.getBeanDefinition(definition.getFactoryBeanName()).getBeanClassName()
+                        : definition.getBeanClassName();
+                if (declaringClass != null && (declaringClass.startsWith(SPRINGDOC_PACKAGE)
+                        || declaringClass.equals(OpenApiConfig.class.getName()))) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
 
     @Bean
     public OpenAPI customOpenAPI() {
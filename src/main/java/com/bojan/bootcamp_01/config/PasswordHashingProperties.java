@@ -0,0 +1,23 @@
+package com.bojan.bootcamp_01.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Password hashing settings bound from {@code app.security.password.*}.
+ *
+ * @param algorithm      encoder used for new hashes: {@code bcrypt}, {@code argon2} or {@code pbkdf2}
+ * @param bcryptStrength BCrypt log2 cost factor (4-31)
+ * @param threads        hashing pool size; 0 or less means one thread per available core
+ * @param queueCapacity  hashing requests allowed to wait before callers get 429
+ */
+@ConfigurationProperties(prefix = "app.security.password")
+public record PasswordHashingProperties(String algorithm, Integer bcryptStrength, Integer threads,
+        Integer queueCapacity) {
+
+    public PasswordHashingProperties {
+        algorithm = algorithm == null ? "bcrypt" : algorithm.toLowerCase();
+        bcryptStrength = bcryptStrength == null ? 10 : bcryptStrength;
+        threads = threads == null || threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads;
+        queueCapacity = queueCapacity == null ? 256 : queueCapacity;
+    }
+}
@@ -0,0 +1,130 @@
+package com.bojan.bootcamp_01.config;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Shares client token usage between nodes through the unlogged {@code rate_limit_usage}
+ * table (changeSet 15).
+ * <p>
+ * Every {@code sync-interval} the tokens each client spent locally are added to its row
+ * for the current accounting window in one {@code INSERT ... ON CONFLICT} round trip, and
+ * the returned totals tell how much the other nodes spent since the last exchange; that
+ * amount is drained from the local bucket. Admission itself never waits on the database,
+ * so a client can overshoot by at most one interval's worth of requests per node, and if
+ * Postgres is unreachable every node simply falls back to its own limits.
+ */
+public class PostgresRateLimitSync implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(PostgresRateLimitSync.class);
+    private static final String UPSERT_SQL = "INSERT INTO rate_limit_usage (bucket_key, window_start, tokens) "
+            + "SELECT k, ?, t FROM unnest(?::text[], ?::bigint[]) AS u(k, t) "
+            + "ON CONFLICT (bucket_key, window_start) DO UPDATE SET tokens = rate_limit_usage.tokens + EXCLUDED.tokens "
+            + "RETURNING bucket_key, tokens";
+    private static final String PURGE_SQL = "DELETE FROM rate_limit_usage WHERE window_start < ?";
+
+    private final RateLimiter limiter;
+    private final JdbcTemplate jdbcTemplate;
+    private final RateLimitProperties.Shared properties;
+    /** Cluster-wide totals seen at the last exchange, for the current window only. */
+    private final Map<String, Long> seenTotals = new HashMap<>();
+    private long currentWindow;
+    private ScheduledExecutorService syncer;
+    private volatile boolean running;
+
+    public PostgresRateLimitSync(RateLimiter limiter, JdbcTemplate jdbcTemplate, RateLimitProperties properties) {
+        this.limiter = limiter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties.shared();
+    }
+
+    void sync() {
+        Map<String, Long> usage = limiter.drainUsage();
+        long windowMillis = properties.window().toMillis();
+        long window = System.currentTimeMillis() / windowMillis * windowMillis;
+        if (window != currentWindow) {
+            seenTotals.clear();
+            currentWindow = window;
+            purge(window - windowMillis);
+        }
+        if (usage.isEmpty()) {
+            return;
+        }
+        String[] keys = usage.keySet().toArray(String[]::new);
+        Long[] tokens = new Long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            tokens[i] = usage.get(keys[i]);
+        }
+        Map<String, Long> totals = new HashMap<>();
+        try {
+            jdbcTemplate.query((Connection connection) -> {
+                PreparedStatement ps = connection.prepareStatement(UPSERT_SQL);
+                ps.setTimestamp(1, Timestamp.from(Instant.ofEpochMilli(window)));
+                ps.setArray(2, connection.createArrayOf("text", keys));
+                ps.setArray(3, connection.createArrayOf("bigint", tokens));
+                return ps;
+            }, rs -> {
+                totals.put(rs.getString(1), rs.getLong(2));
+            });
+        } catch (DataAccessException e) {
+            log.warn("Rate limit usage for {} clients not shared: {}", keys.length, e.getMessage());
+            return;
+        }
+        for (Map.Entry<String, Long> total : totals.entrySet()) {
+            String client = total.getKey();
+            Long previous = seenTotals.get(client);
+            if (previous == null && seenTotals.size() >= properties.maxKeys()) {
+                // without a baseline the whole window would be charged again on every exchange
+                continue;
+            }
+            long remote = total.getValue() - (previous == null ? 0 : previous) - usage.get(client);
+            if (remote > 0) {
+                limiter.applyRemoteUsage(client, remote);
+            }
+            seenTotals.put(client, total.getValue());
+        }
+    }
+
+    private void purge(long before) {
+        try {
+            jdbcTemplate.update(PURGE_SQL, Timestamp.from(Instant.ofEpochMilli(before)));
+        } catch (DataAccessException e) {
+            log.warn("Could not purge old rate limit usage: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.syncInterval().toMillis();
+        syncer.scheduleWithFixedDelay(this::sync, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        syncer.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
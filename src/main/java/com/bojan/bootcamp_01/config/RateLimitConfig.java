@@ -0,0 +1,30 @@
+package com.bojan.bootcamp_01.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Request admission control ({@code app.rate-limit.enabled=true}). The filter itself is
+ * not a bean, so it only runs inside the security filter chain ({@link SecurityConfig})
+ * and is not registered a second time with the servlet container.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.rate-limit.enabled", havingValue = "true")
+    public RateLimiter rateLimiter(RateLimitProperties properties) {
+        return new RateLimiter(properties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = { "app.rate-limit.enabled", "app.rate-limit.shared.enabled" }, havingValue = "true")
+    public PostgresRateLimitSync postgresRateLimitSync(RateLimiter rateLimiter, JdbcTemplate jdbcTemplate,
+            RateLimitProperties properties) {
+        return new PostgresRateLimitSync(rateLimiter, jdbcTemplate, properties);
+    }
+}
@@ -0,0 +1,88 @@
+package com.bojan.bootcamp_01.config;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Applies {@link RateLimiter} ahead of authorization. Clients over their budget get 429
+ * and overload gets 503, both with {@code Retry-After} and no body, before any controller
+ * or database work. The latency fed back to the concurrency limit covers the whole
+ * request, including the async part of {@code CompletableFuture} endpoints.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final RateLimiter limiter;
+
+    public RateLimitFilter(RateLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        RateLimiter.Decision decision = limiter.admit(request.getMethod(), path, request.getRemoteAddr());
+        if (decision.verdict() != RateLimiter.Verdict.ADMITTED) {
+            HttpStatus status = decision.verdict() == RateLimiter.Verdict.OVERLOADED
+                    ? HttpStatus.SERVICE_UNAVAILABLE
+                    : HttpStatus.TOO_MANY_REQUESTS;
+            response.setStatus(status.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(Math.max(1, (decision.retryAfterMillis() + 999) / 1000)));
+            return;
+        }
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(decision, start));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                limiter.release(decision, start);
+            }
+        }
+    }
+
+    private final class ReleasingListener implements AsyncListener {
+        private final RateLimiter.Decision decision;
+        private final long start;
+
+        ReleasingListener(RateLimiter.Decision decision, long start) {
+            this.decision = decision;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limiter.release(decision, start);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // onComplete follows
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // onComplete follows
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // listeners are dropped when async processing restarts
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
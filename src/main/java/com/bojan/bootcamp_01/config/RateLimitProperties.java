@@ -0,0 +1,88 @@
+package com.bojan.bootcamp_01.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Request admission settings bound from {@code app.rate-limit.*}.
+ *
+ * @param enabled         installs {@link RateLimitFilter} in the security filter chain
+ * @param capacity        per-client burst, in tokens
+ * @param refillPerSecond tokens a client gets back per second
+ * @param stripes         bucket slots per table; a power of two
+ * @param routes          cost and node-wide rate per route; the first match wins and
+ *                        unmatched requests cost one token
+ * @param exemptPaths     path patterns that are never limited (health probes, metrics)
+ * @param concurrency     latency-driven concurrency limit for the whole node
+ * @param shared          exchange of client usage between nodes through Postgres
+ */
+@ConfigurationProperties(prefix = "app.rate-limit")
+public record RateLimitProperties(Boolean enabled, Integer capacity, Double refillPerSecond, Integer stripes,
+        List<Route> routes, List<String> exemptPaths, Concurrency concurrency, Shared shared) {
+
+    public RateLimitProperties {
+        enabled = enabled != null && enabled;
+        capacity = capacity == null ? 100 : capacity;
+        refillPerSecond = refillPerSecond == null ? 20.0 : refillPerSecond;
+        stripes = stripes == null ? 65_536 : stripes;
+        routes = routes == null ? List.of() : List.copyOf(routes);
+        exemptPaths = exemptPaths == null ? List.of("/actuator/**", "/health/**") : List.copyOf(exemptPaths);
+        concurrency = concurrency == null ? new Concurrency(null, null, null, null, null, null) : concurrency;
+        shared = shared == null ? new Shared(null, null, null, null) : shared;
+    }
+
+    /**
+     * @param method    HTTP method, or null for any
+     * @param path      path pattern, e.g. {@code /api/users/search/**}
+     * @param cost      tokens taken from the client's bucket per request
+     * @param rate      requests per second for this route across all clients on the node,
+     *                  or null for no route-wide limit
+     * @param longLived requests that deliberately stay open (long polls, event streams);
+     *                  they neither take a concurrency permit nor feed the latency samples
+     */
+    public record Route(String method, String path, Integer cost, Double rate, Boolean longLived) {
+
+        public Route {
+            if (path == null) {
+                throw new IllegalArgumentException("app.rate-limit.routes[].path is required");
+            }
+            cost = cost == null ? 1 : cost;
+            longLived = longLived != null && longLived;
+        }
+    }
+
+    /**
+     * @param tolerance how far a window's average latency may exceed the no-load baseline
+     *                  before the limit shrinks
+     * @param window    latency averaging window
+     */
+    public record Concurrency(Boolean enabled, Integer initialLimit, Integer minLimit, Integer maxLimit,
+            Double tolerance, Duration window) {
+
+        public Concurrency {
+            enabled = enabled == null || enabled;
+            initialLimit = initialLimit == null ? 100 : initialLimit;
+            minLimit = minLimit == null ? 10 : minLimit;
+            maxLimit = maxLimit == null ? 1000 : maxLimit;
+            tolerance = tolerance == null ? 1.5 : tolerance;
+            window = window == null ? Duration.ofSeconds(1) : window;
+        }
+    }
+
+    /**
+     * @param syncInterval delay between usage exchanges with {@code rate_limit_usage}
+     * @param window       length of one row's accounting window in {@code rate_limit_usage}
+     * @param maxKeys      clients tracked per interval; usage beyond that stays node-local
+     */
+    public record Shared(Boolean enabled, Duration syncInterval, Duration window, Integer maxKeys) {
+
+        public Shared {
+            enabled = enabled != null && enabled;
+            syncInterval = syncInterval == null ? Duration.ofSeconds(1) : syncInterval;
+            window = window == null ? Duration.ofMinutes(1) : window;
+            maxKeys = maxKeys == null ? 10_000 : maxKeys;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.bojan.bootcamp_01.config;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.bojan.bootcamp_01.util.AdaptiveConcurrencyLimit;
+import com.bojan.bootcamp_01.util.StripedTokenBucket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Admission decisions for {@link RateLimitFilter}, in order of cost to the caller:
+ * <ol>
+ * <li>the node-wide {@link AdaptiveConcurrencyLimit}, which sheds load with 503 once
+ * latency shows requests are queueing;</li>
+ * <li>the client's token bucket, charged the matched route's cost, so one BCrypt
+ * registration weighs as much as many cheap lookups;</li>
+ * <li>the route's own bucket, capping how often an expensive route runs on this node
+ * regardless of how many clients share the load.</li>
+ * </ol>
+ * A request refused by a bucket gives its concurrency permit back unused; long-lived routes
+ * take none. When usage is shared, the tokens each client spends are accumulated for
+ * {@link PostgresRateLimitSync}.
+ */
+public class RateLimiter implements MeterBinder {
+    public enum Verdict {
+        ADMITTED, CLIENT_LIMITED, ROUTE_LIMITED, OVERLOADED
+    }
+
+    /**
+     * @param retryAfterMillis when the request could succeed; 0 if admitted
+     * @param permit           whether a concurrency permit is held and must be released
+     */
+    public record Decision(Verdict verdict, long retryAfterMillis, boolean permit) {
+
+        static final Decision EXEMPT = new Decision(Verdict.ADMITTED, 0, false);
+    }
+
+    private static final long OVERLOAD_RETRY_MILLIS = 1000;
+
+    private final StripedTokenBucket clients;
+    private final List<CompiledRoute> routes;
+    private final List<PathPattern> exemptPaths;
+    private final AdaptiveConcurrencyLimit concurrency;
+    private final Map<String, Long> pendingUsage;
+    private final int maxSharedKeys;
+    private volatile Map<Verdict, Counter> rejections = Map.of();
+
+    public RateLimiter(RateLimitProperties properties) {
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        this.clients = new StripedTokenBucket(properties.stripes(), properties.capacity(),
+                properties.refillPerSecond());
+        this.routes = properties.routes().stream()
+                .map(route -> new CompiledRoute(route.method(), parser.parse(route.path()), route.cost(),
+                        route.rate() == null ? null
+                                : new StripedTokenBucket(1, (int) Math.max(1, Math.ceil(route.rate())), route.rate()),
+                        route.longLived()))
+                .toList();
+        this.exemptPaths = properties.exemptPaths().stream().map(parser::parse).toList();
+        RateLimitProperties.Concurrency limit = properties.concurrency();
+        this.concurrency = limit.enabled()
+                ? new AdaptiveConcurrencyLimit(limit.initialLimit(), limit.minLimit(), limit.maxLimit(),
+                        limit.tolerance(), limit.window())
+                : null;
+        this.pendingUsage = properties.shared().enabled() ? new ConcurrentHashMap<>() : null;
+        this.maxSharedKeys = properties.shared().maxKeys();
+    }
+
+    public Decision admit(String method, String path, String client) {
+        PathContainer container = PathContainer.parsePath(path);
+        for (PathPattern exempt : exemptPaths) {
+            if (exempt.matches(container)) {
+                return Decision.EXEMPT;
+            }
+        }
+        CompiledRoute route = match(method, container);
+        boolean permit = concurrency != null && (route == null || !route.longLived());
+        if (permit && !concurrency.tryAcquire()) {
+            return reject(Verdict.OVERLOADED, OVERLOAD_RETRY_MILLIS);
+        }
+        int cost = route == null ? 1 : route.cost();
+        long wait = clients.tryConsume(client, cost);
+        if (wait > 0) {
+            return reject(Verdict.CLIENT_LIMITED, wait, permit);
+        }
+        if (pendingUsage != null && (pendingUsage.size() < maxSharedKeys || pendingUsage.containsKey(client))) {
+            pendingUsage.merge(client, (long) cost, Long::sum);
+        }
+        if (route != null && route.bucket() != null) {
+            wait = route.bucket().tryConsume("", 1);
+            if (wait > 0) {
+                return reject(Verdict.ROUTE_LIMITED, wait, permit);
+            }
+        }
+        return new Decision(Verdict.ADMITTED, 0, permit);
+    }
+
+    /**
+     * @param startNanos {@link System#nanoTime()} taken right after {@link #admit}
+     */
+    public void release(Decision decision, long startNanos) {
+        if (decision.permit()) {
+            concurrency.release(startNanos);
+        }
+    }
+
+    /**
+     * Removes and returns the tokens each client spent since the last call.
+     */
+    Map<String, Long> drainUsage() {
+        Map<String, Long> usage = new HashMap<>();
+        if (pendingUsage != null) {
+            for (String client : pendingUsage.keySet()) {
+                Long tokens = pendingUsage.remove(client);
+                if (tokens != null) {
+                    usage.put(client, tokens);
+                }
+            }
+        }
+        return usage;
+    }
+
+    /**
+     * Charges a client for tokens it spent on other nodes.
+     */
+    void applyRemoteUsage(String client, long tokens) {
+        clients.drain(client, tokens);
+    }
+
+    private CompiledRoute match(String method, PathContainer path) {
+        for (CompiledRoute route : routes) {
+            if ((route.method() == null || route.method().equalsIgnoreCase(method)) && route.path().matches(path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private Decision reject(Verdict verdict, long retryAfterMillis, boolean permit) {
+        if (permit) {
+            concurrency.cancel();
+        }
+        return reject(verdict, retryAfterMillis);
+    }
+
+    private Decision reject(Verdict verdict, long retryAfterMillis) {
+        Counter counter = rejections.get(verdict);
+        if (counter != null) {
+            counter.increment();
+        }
+        return new Decision(verdict, retryAfterMillis, false);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map<Verdict, Counter> counters = new EnumMap<>(Verdict.class);
+        for (Verdict verdict : Verdict.values()) {
+            if (verdict != Verdict.ADMITTED) {
+                counters.put(verdict, Counter.builder("http.server.requests.rejected")
+                        .description("Requests refused by the rate limiter or concurrency limit")
+                        .tag("reason", verdict.name().toLowerCase())
+                        .register(registry));
+            }
+        }
+        rejections = counters;
+        if (concurrency != null) {
+            Gauge.builder("http.server.concurrency.limit", concurrency, AdaptiveConcurrencyLimit::limit)
+                    .description("Current adaptive concurrency limit")
+                    .register(registry);
+            Gauge.builder("http.server.concurrency.in-flight", concurrency, AdaptiveConcurrencyLimit::inFlight)
+                    .description("Requests currently holding a concurrency permit")
+                    .register(registry);
+        }
+    }
+
+    private record CompiledRoute(String method, PathPattern path, int cost, StripedTokenBucket bucket,
+            boolean longLived) {
+    }
+}
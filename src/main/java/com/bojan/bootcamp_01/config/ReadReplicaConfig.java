@@ -0,0 +1,60 @@
+package com.bojan.bootcamp_01.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Read replica routing ({@code app.datasource.replica.enabled=true}). The replica pool is
+ * deliberately not a {@link DataSource} bean, so Boot still auto-configures the primary
+ * {@code dataSource}, which is then wrapped by {@link ReadReplicaRouter}.
+ */
+@Configuration
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+    public ReadReplicaRouter readReplicaRouter(ReadReplicaProperties properties, DataSourceProperties primary) {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(properties.url());
+        replica.setUsername(properties.username() == null ? primary.determineUsername() : properties.username());
+        replica.setPassword(properties.password() == null ? primary.determinePassword() : properties.password());
+        replica.setMaximumPoolSize(properties.maximumPoolSize());
+        replica.setReadOnly(true);
+        return new ReadReplicaRouter(replica, properties);
+    }
+
+    /**
+     * Unordered, so it runs after the (ordered) connection limiter: the limiter guards only
+     * the primary pool and the routing proxy ends up outermost.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+    public static BeanPostProcessor readReplicaRoutingPostProcessor(ObjectProvider<ReadReplicaRouter> router) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    return router.getObject().wrap(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+    public ReadYourWritesFilter readYourWritesFilter(ReadReplicaProperties properties) {
+        return new ReadYourWritesFilter(properties);
+    }
+}
@@ -0,0 +1,44 @@
+package com.bojan.bootcamp_01.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Read replica settings bound from {@code app.datasource.replica.*}.
+ *
+ * @param enabled          route read-only transactions to the replica
+ * @param url              replica JDBC URL
+ * @param username         replica user; defaults to {@code spring.datasource.username}
+ * @param password         replica password; defaults to {@code spring.datasource.password}
+ * @param maximumPoolSize  size of the separate replica Hikari pool
+ * @param maxLag           replay lag above which reads fall back to the primary
+ * @param lagCheckInterval how often the lag is sampled
+ */
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public record ReadReplicaProperties(Boolean enabled, String url, String username, String password,
+        Integer maximumPoolSize, Duration maxLag, Duration lagCheckInterval) {
+
+    public ReadReplicaProperties {
+        enabled = enabled != null && enabled;
+        maximumPoolSize = maximumPoolSize == null ? 10 : maximumPoolSize;
+        maxLag = maxLag == null ? Duration.ofSeconds(2) : maxLag;
+        lagCheckInterval = lagCheckInterval == null ? Duration.ofSeconds(1) : lagCheckInterval;
+    }
+
+    /**
+     * Age after which a lag sample no longer counts and reads go to the primary.
+     */
+    public Duration lagSampleValidity() {
+        return lagCheckInterval.multipliedBy(2);
+    }
+
+    /**
+     * How long after a write a client keeps reading from the primary. A replica is only
+     * used while a sample at most {@link #lagSampleValidity()} old shows at most
+     * {@code maxLag}, so after this window it has replayed the client's write.
+     */
+    public Duration readYourWritesWindow() {
+        return maxLag.plus(lagSampleValidity());
+    }
+}
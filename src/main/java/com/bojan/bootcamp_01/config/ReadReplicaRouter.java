@@ -0,0 +1,214 @@
+package com.bojan.bootcamp_01.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Sends read-only transactions to a replica pool and everything else to the primary.
+ * <p>
+ * {@link #wrap(DataSource)} puts a {@link LazyConnectionDataSourceProxy} in front of the
+ * primary. The proxy only fetches a physical connection on the first statement, by which
+ * time the transaction manager has called {@code setReadOnly(true)} for
+ * {@code @Transactional(readOnly = true)} work; those connections come from the replica.
+ * A read falls back to the primary while the replica's replay lag exceeds
+ * {@code max-lag}, while the lag is unknown, when the replica refuses a connection and
+ * inside {@link #onPrimary(Supplier)}.
+ */
+public class ReadReplicaRouter implements SmartLifecycle, MeterBinder {
+    // 0 when the replica has replayed everything it received, so an idle primary does not read as lag
+    static final String LAG_SQL = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+            + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaRouter.class);
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final DataSource replica;
+    private final ReadReplicaProperties properties;
+    private final ScheduledExecutorService scheduler;
+    private volatile Counter replicaReads;
+    private volatile Counter primaryReads;
+    private volatile Duration lag;
+    private volatile long sampledAtNanos;
+    private volatile boolean running;
+
+    public ReadReplicaRouter(DataSource replica, ReadReplicaProperties properties) {
+        this.replica = replica;
+        this.properties = properties;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs {@code work} with every read, including read-only transactions started inside
+     * it, going to the primary.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        boolean previous = forcePrimary();
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * @return whether the thread was already forced to the primary, for {@link #restore(boolean)}
+     */
+    static boolean forcePrimary() {
+        boolean previous = FORCE_PRIMARY.get() != null;
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        return previous;
+    }
+
+    static void restore(boolean previous) {
+        if (!previous) {
+            FORCE_PRIMARY.remove();
+        }
+    }
+
+    public DataSource wrap(DataSource primary) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(new RoutingDataSource(primary));
+        return proxy;
+    }
+
+    /**
+     * @return the last sampled lag, or null if the replica is not usable
+     */
+    public Duration lag() {
+        Duration current = lag;
+        boolean fresh = System.nanoTime() - sampledAtNanos <= properties.lagSampleValidity().toNanos();
+        return current != null && fresh ? current : null;
+    }
+
+    /**
+     * Whether a read-only read on this thread may be served by a replica that is behind the
+     * primary; callers should not cache what they read while this holds.
+     */
+    public boolean mayReadStale() {
+        Duration current = lag();
+        return FORCE_PRIMARY.get() == null && current != null && !current.isZero()
+                && current.compareTo(properties.maxLag()) <= 0;
+    }
+
+    boolean replicaUsable() {
+        Duration current = lag();
+        return current != null && current.compareTo(properties.maxLag()) <= 0;
+    }
+
+    void sample() {
+        try (Connection connection = replica.getConnection(); Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout((int) Math.max(1, properties.lagCheckInterval().toSeconds()));
+            try (ResultSet rs = statement.executeQuery(LAG_SQL)) {
+                rs.next();
+                recordLag(Duration.ofMillis(Math.round(rs.getDouble(1) * 1000)));
+            }
+        } catch (SQLException | RuntimeException e) {
+            lag = null;
+            log.warn("Replica lag check failed, reading from the primary: {}", e.getMessage());
+        }
+    }
+
+    void recordLag(Duration sampled) {
+        lag = sampled;
+        sampledAtNanos = System.nanoTime();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        replicaReads = routed(registry, "replica");
+        primaryReads = routed(registry, "primary");
+        Gauge.builder("db.replica.lag", this, router -> {
+            Duration current = router.lag();
+            return current == null ? Double.NaN : current.toMillis() / 1000.0;
+        }).description("Replica replay lag in seconds; NaN while unknown").baseUnit("seconds").register(registry);
+    }
+
+    private static Counter routed(MeterRegistry registry, String target) {
+        return Counter.builder("db.replica.routed")
+                .description("Read-only connections by the pool that served them")
+                .tag("target", target)
+                .register(registry);
+    }
+
+    private static void count(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    @Override
+    public void start() {
+        long interval = properties.lagCheckInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::sample, 0, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        scheduler.shutdownNow();
+        if (replica instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("Closing the replica pool failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Read-only target of the lazy proxy: the replica when it is usable, else the primary.
+     */
+    private final class RoutingDataSource extends DelegatingDataSource {
+        RoutingDataSource(DataSource primary) {
+            super(primary);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (FORCE_PRIMARY.get() == null && replicaUsable()) {
+                try {
+                    Connection connection = replica.getConnection();
+                    count(replicaReads);
+                    return connection;
+                } catch (SQLException e) {
+                    // stay on the primary until the next successful sample
+                    lag = null;
+                    log.warn("Replica connection failed, reading from the primary: {}", e.getMessage());
+                }
+            }
+            count(primaryReads);
+            return super.getConnection();
+        }
+    }
+}
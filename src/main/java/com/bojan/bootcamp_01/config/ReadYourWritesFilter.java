@@ -0,0 +1,70 @@
+package com.bojan.bootcamp_01.config;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Read-your-writes for replica routing. Any mutating request sets a short-lived cookie;
+ * while a client presents it, its requests read from the primary. The cookie outlives
+ * the largest lag at which the replica is still used, so once it expires the client's
+ * writes are visible on the replica.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    static final String COOKIE = "read-primary";
+
+    private final ReadReplicaProperties properties;
+
+    public ReadYourWritesFilter(ReadReplicaProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean mutating = !(HttpMethod.GET.matches(request.getMethod())
+                || HttpMethod.HEAD.matches(request.getMethod())
+                || HttpMethod.OPTIONS.matches(request.getMethod()));
+        if (mutating) {
+            // set before the chain runs; the body may commit the response
+            response.addHeader("Set-Cookie", ResponseCookie.from(COOKIE, "1")
+                    .maxAge(properties.readYourWritesWindow())
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build()
+                    .toString());
+        }
+        if (!mutating && !hasCookie(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        boolean previous = ReadReplicaRouter.forcePrimary();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadReplicaRouter.restore(previous);
+        }
+    }
+
+    private static boolean hasCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,73 @@
+package com.bojan.bootcamp_01.config;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.BaseStream;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Adds a row-count distribution ({@code spring.data.repository.rows}) per repository
+ * method, next to the {@code spring.data.repository.invocations} timers that Spring Boot
+ * already records. Streams are not counted because that would mean consuming them.
+ */
+@Configuration
+public class RepositoryMetricsConfig {
+
+    @Bean
+    public static BeanPostProcessor repositoryRowCountPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, information) -> proxyFactory.addAdvice(rowCounter(meterRegistry,
+                                    information.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static MethodInterceptor rowCounter(ObjectProvider<MeterRegistry> meterRegistry, String repository) {
+        return invocation -> {
+            Object result = invocation.proceed();
+            Integer rows = rowCount(result);
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (rows != null && registry != null) {
+                DistributionSummary.builder("spring.data.repository.rows")
+                        .description("Rows returned per repository method invocation")
+                        .tag("repository", repository)
+                        .tag("method", invocation.getMethod().getName())
+                        .publishPercentileHistogram()
+                        .register(registry)
+                        .record(rows);
+            }
+            return result;
+        };
+    }
+
+    private static Integer rowCount(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Boolean || result instanceof Number || result instanceof BaseStream) {
+            return null;
+        }
+        return 1;
+    }
+}
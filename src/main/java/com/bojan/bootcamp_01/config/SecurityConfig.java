@@ -1,29 +1,58 @@
 package com.bojan.bootcamp_01.config;
 
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties({ PasswordHashingProperties.class, LoginThrottleProperties.class })
 public class SecurityConfig {
 
+    /**
+     * With {@code app.rate-limit.enabled}, requests pass {@link RateLimitFilter} before
+     * authorization, so refused requests never reach a controller.
+     */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, ObjectProvider<RateLimiter> rateLimiter)
+            throws Exception {
         http
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(authorize -> authorize
                 .anyRequest().permitAll()
             );
+        rateLimiter.ifAvailable(limiter -> http.addFilterBefore(new RateLimitFilter(limiter), AuthorizationFilter.class));
         return http.build();
     }
 
+    /**
+     * New hashes use the configured algorithm and carry an {@code {id}} prefix; hashes
+     * stored before the prefix existed are plain BCrypt and still verify.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties properties) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(properties.bcryptStrength());
+        Map<String, PasswordEncoder> encoders = Map.of(
+                "bcrypt", bcrypt,
+                "argon2", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8(),
+                "pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (!encoders.containsKey(properties.algorithm())) {
+            throw new IllegalStateException("Unsupported password algorithm: " + properties.algorithm());
+        }
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(properties.algorithm(), encoders);
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return delegating;
     }
 }
@@ -0,0 +1,23 @@
+package com.bojan.bootcamp_01.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.bojan.bootcamp_01.service.PostgresUserCacheInvalidation;
+import com.bojan.bootcamp_01.service.UserCache;
+
+@Configuration
+@EnableConfigurationProperties(UserCacheProperties.class)
+public class UserCacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.users.cache.notify-enabled", havingValue = "true")
+    public PostgresUserCacheInvalidation postgresUserCacheInvalidation(UserCache userCache,
+            JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties, UserCacheProperties properties) {
+        return new PostgresUserCacheInvalidation(userCache, jdbcTemplate, dataSourceProperties, properties);
+    }
+}
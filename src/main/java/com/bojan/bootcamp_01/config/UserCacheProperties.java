@@ -0,0 +1,25 @@
+package com.bojan.bootcamp_01.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * User lookup cache settings bound from {@code app.users.cache.*}.
+ *
+ * @param maximumSize   users kept per node before size-based eviction
+ * @param ttl           time after write before an entry is reloaded
+ * @param notifyEnabled publish and listen for Postgres NOTIFY invalidations so replicas
+ *                      evict users changed on other nodes
+ * @param channel       Postgres channel used for invalidation notifications
+ */
+@ConfigurationProperties(prefix = "app.users.cache")
+public record UserCacheProperties(Long maximumSize, Duration ttl, Boolean notifyEnabled, String channel) {
+
+    public UserCacheProperties {
+        maximumSize = maximumSize == null ? 10_000L : maximumSize;
+        ttl = ttl == null ? Duration.ofMinutes(5) : ttl;
+        notifyEnabled = notifyEnabled != null && notifyEnabled;
+        channel = channel == null ? "user_cache_invalidation" : channel;
+    }
+}
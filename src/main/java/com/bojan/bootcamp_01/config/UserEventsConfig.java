@@ -0,0 +1,38 @@
+package com.bojan.bootcamp_01.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.bojan.bootcamp_01.service.InMemoryUserEventSink;
+import com.bojan.bootcamp_01.service.UserEventFeed;
+import com.bojan.bootcamp_01.service.UserEventRelay;
+import com.bojan.bootcamp_01.service.UserEventSink;
+
+@Configuration
+@EnableConfigurationProperties(UserEventsProperties.class)
+public class UserEventsConfig {
+    private static final int IN_MEMORY_SINK_CAPACITY = 10_000;
+
+    @Bean
+    public UserEventFeed userEventFeed(JdbcTemplate jdbcTemplate, UserEventsProperties properties) {
+        return new UserEventFeed(jdbcTemplate, properties);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(UserEventSink.class)
+    public InMemoryUserEventSink inMemoryUserEventSink() {
+        return new InMemoryUserEventSink(IN_MEMORY_SINK_CAPACITY);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.users.events.relay-enabled", havingValue = "true")
+    public UserEventRelay userEventRelay(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            UserEventSink sink, UserEventFeed feed, UserEventsProperties properties) {
+        return new UserEventRelay(jdbcTemplate, transactionManager, sink, feed, properties);
+    }
+}
@@ -0,0 +1,34 @@
+package com.bojan.bootcamp_01.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * User change stream settings bound from {@code app.users.events.*}.
+ *
+ * @param relayEnabled  run the outbox relay on this node; concurrent relays on other
+ *                      nodes are harmless, only one publishes at a time
+ * @param relayInterval delay between relay runs while the outbox is empty
+ * @param batchSize     events published per relay transaction
+ * @param retention     how long published events stay readable at their offset
+ * @param pollInterval  how often waiting long-poll and stream consumers check for new events
+ * @param maxWait       longest long-poll wait a client may ask for
+ * @param maxLimit      largest page a client may ask for
+ * @param streamTimeout lifetime of one SSE connection; clients reconnect with Last-Event-ID
+ */
+@ConfigurationProperties(prefix = "app.users.events")
+public record UserEventsProperties(Boolean relayEnabled, Duration relayInterval, Integer batchSize,
+        Duration retention, Duration pollInterval, Duration maxWait, Integer maxLimit, Duration streamTimeout) {
+
+    public UserEventsProperties {
+        relayEnabled = relayEnabled == null || relayEnabled;
+        relayInterval = relayInterval == null ? Duration.ofMillis(200) : relayInterval;
+        batchSize = batchSize == null ? 500 : batchSize;
+        retention = retention == null ? Duration.ofDays(7) : retention;
+        pollInterval = pollInterval == null ? Duration.ofMillis(500) : pollInterval;
+        maxWait = maxWait == null ? Duration.ofSeconds(30) : maxWait;
+        maxLimit = maxLimit == null ? 1000 : maxLimit;
+        streamTimeout = streamTimeout == null ? Duration.ofMinutes(30) : streamTimeout;
+    }
+}
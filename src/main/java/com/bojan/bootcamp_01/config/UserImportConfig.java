@@ -0,0 +1,23 @@
+package com.bojan.bootcamp_01.config;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(UserImportProperties.class)
+public class UserImportConfig {
+    public static final String IMPORT_HASH_POOL = "userImportHashPool";
+
+    /**
+     * Separate from the registration hashing pool so a bulk import cannot starve signups.
+     */
+    @Bean(name = IMPORT_HASH_POOL, destroyMethod = "shutdown")
+    @Qualifier(IMPORT_HASH_POOL)
+    public ForkJoinPool userImportHashPool(UserImportProperties properties) {
+        return new ForkJoinPool(properties.hashParallelism());
+    }
+}
@@ -0,0 +1,22 @@
+package com.bojan.bootcamp_01.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Bulk import settings bound from {@code app.users.import.*}.
+ *
+ * @param batchSize         rows validated, hashed and inserted per JDBC batch/transaction
+ * @param hashParallelism   fork-join parallelism for import hashing; 0 or less means one per core
+ * @param maxReportedErrors row errors kept in the report; later failures are only counted
+ */
+@ConfigurationProperties(prefix = "app.users.import")
+public record UserImportProperties(Integer batchSize, Integer hashParallelism, Integer maxReportedErrors) {
+
+    public UserImportProperties {
+        batchSize = batchSize == null ? 1000 : batchSize;
+        hashParallelism = hashParallelism == null || hashParallelism <= 0
+                ? Runtime.getRuntime().availableProcessors()
+                : hashParallelism;
+        maxReportedErrors = maxReportedErrors == null ? 1000 : maxReportedErrors;
+    }
+}
@@ -0,0 +1,28 @@
+package com.bojan.bootcamp_01.config;
+
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.bojan.bootcamp_01.service.UserPartitionBackfill;
+
+@Configuration
+@EnableConfigurationProperties(UserPartitioningProperties.class)
+public class UserPartitioningConfig {
+
+    /**
+     * One-off copy into {@code users_p}, typically run as a separate process:
+     * {@code --app.users.partitioning.backfill-enabled=true --spring.main.web-application-type=none}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.users.partitioning.backfill-enabled", havingValue = "true")
+    public ApplicationRunner userPartitionBackfillRunner(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager, UserPartitioningProperties properties) {
+        UserPartitionBackfill backfill = new UserPartitionBackfill(jdbcTemplate, transactionManager, properties);
+        return args -> backfill.run();
+    }
+}
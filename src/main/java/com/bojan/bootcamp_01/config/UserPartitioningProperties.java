@@ -0,0 +1,29 @@
+package com.bojan.bootcamp_01.config;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Hash-partitioned {@code users} settings bound from {@code app.users.partitioning.*}.
+ *
+ * @param enabled           resolve username/email lookups through {@code user_unique_keys} so
+ *                          they hit a single partition; only valid after the cutover changeSet
+ * @param backfillEnabled   copy existing rows from {@code users} into {@code users_p} on startup
+ * @param backfillBatchSize rows copied per transaction
+ * @param backfillPause     sleep between batches
+ * @param backfillFromId    resume the copy after this id (as logged by an interrupted run)
+ */
+@ConfigurationProperties(prefix = "app.users.partitioning")
+public record UserPartitioningProperties(Boolean enabled, Boolean backfillEnabled, Integer backfillBatchSize,
+        Duration backfillPause, UUID backfillFromId) {
+
+    public UserPartitioningProperties {
+        enabled = enabled != null && enabled;
+        backfillEnabled = backfillEnabled != null && backfillEnabled;
+        backfillBatchSize = backfillBatchSize == null ? 5_000 : backfillBatchSize;
+        backfillPause = backfillPause == null ? Duration.ofMillis(50) : backfillPause;
+        backfillFromId = backfillFromId == null ? new UUID(0, 0) : backfillFromId;
+    }
+}
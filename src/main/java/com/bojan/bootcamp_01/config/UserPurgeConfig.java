@@ -0,0 +1,26 @@
+package com.bojan.bootcamp_01.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.bojan.bootcamp_01.service.UserPurgeJob;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(UserPurgeProperties.class)
+@ConditionalOnProperty(name = "app.users.purge.enabled", havingValue = "true")
+public class UserPurgeConfig {
+
+    @Bean
+    public UserPurgeJob userPurgeJob(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            UserPurgeProperties properties, MeterRegistry meterRegistry) {
+        return new UserPurgeJob(jdbcTemplate, transactionManager, properties, meterRegistry);
+    }
+}
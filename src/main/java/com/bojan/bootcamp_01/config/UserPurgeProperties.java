@@ -0,0 +1,29 @@
+package com.bojan.bootcamp_01.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Purge of soft-deleted users bound from {@code app.users.purge.*}.
+ *
+ * @param enabled    schedule the purge job on this node
+ * @param cron       when the job runs
+ * @param retention  how long a soft-deleted user stays in {@code users} before it is archived
+ * @param batchSize  rows moved to {@code users_archive} per transaction
+ * @param pause      sleep between batches so replication and autovacuum keep up
+ * @param maxBatches batches per run; the next run continues where this one stopped
+ */
+@ConfigurationProperties(prefix = "app.users.purge")
+public record UserPurgeProperties(Boolean enabled, String cron, Duration retention, Integer batchSize,
+        Duration pause, Integer maxBatches) {
+
+    public UserPurgeProperties {
+        enabled = enabled != null && enabled;
+        cron = cron == null ? "0 30 3 * * *" : cron;
+        retention = retention == null ? Duration.ofDays(30) : retention;
+        batchSize = batchSize == null ? 500 : batchSize;
+        pause = pause == null ? Duration.ofMillis(200) : pause;
+        maxBatches = maxBatches == null ? 200 : maxBatches;
+    }
+}
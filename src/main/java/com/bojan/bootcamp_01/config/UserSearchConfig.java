@@ -0,0 +1,9 @@
+package com.bojan.bootcamp_01.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(UserSearchProperties.class)
+public class UserSearchConfig {
+}
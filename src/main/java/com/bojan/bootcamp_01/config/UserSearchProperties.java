@@ -0,0 +1,22 @@
+package com.bojan.bootcamp_01.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * User search settings bound from {@code app.users.search.*}.
+ *
+ * @param maxLimit       largest page a caller may request
+ * @param minQueryLength shortest search term accepted
+ * @param timeout        statement timeout applied to each search query
+ */
+@ConfigurationProperties(prefix = "app.users.search")
+public record UserSearchProperties(Integer maxLimit, Integer minQueryLength, Duration timeout) {
+
+    public UserSearchProperties {
+        maxLimit = maxLimit == null ? 100 : maxLimit;
+        minQueryLength = minQueryLength == null ? 2 : minQueryLength;
+        timeout = timeout == null ? Duration.ofSeconds(2) : timeout;
+    }
+}
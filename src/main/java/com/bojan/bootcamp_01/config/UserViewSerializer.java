@@ -0,0 +1,110 @@
+package com.bojan.bootcamp_01.config;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.UUID;
+
+import com.bojan.bootcamp_01.dto.UserView;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.PropertyFilter;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes {@link UserView} straight to the {@link JsonGenerator}, without the per-property
+ * writers, filter lookups and accessor calls of the bean serializer. The output is the
+ * same: UUIDs and instants go through the serializers the mapper would pick for the
+ * format (CBOR and Smile write UUIDs as 16 raw bytes), and null members are written.
+ * <p>
+ * A sparse fieldset ({@code ?fields=}), an active JSON view, a naming strategy or a
+ * non-default inclusion rule hands the value to the regular bean serializer instead.
+ */
+class UserViewSerializer extends StdSerializer<UserView> implements ResolvableSerializer {
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString USERNAME = new SerializedString("username");
+    private static final SerializedString EMAIL = new SerializedString("email");
+    private static final SerializedString EMAIL_VERIFIED = new SerializedString("emailVerified");
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializedString UPDATED_AT = new SerializedString("updatedAt");
+    private static final SerializedString DELETED_AT = new SerializedString("deletedAt");
+    private static final SerializedString VERSION = new SerializedString("version");
+
+    private final JsonSerializer<Object> beanSerializer;
+    private JsonSerializer<Object> uuidSerializer;
+    private JsonSerializer<Object> instantSerializer;
+    private boolean streaming;
+
+    UserViewSerializer(JsonSerializer<Object> beanSerializer) {
+        super(UserView.class);
+        this.beanSerializer = beanSerializer;
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        if (beanSerializer instanceof ResolvableSerializer resolvable) {
+            resolvable.resolve(provider);
+        }
+        uuidSerializer = provider.findValueSerializer(UUID.class, null);
+        instantSerializer = provider.findValueSerializer(Instant.class, null);
+        SerializationConfig config = provider.getConfig();
+        JsonInclude.Include inclusion = config.getDefaultPropertyInclusion(UserView.class).getValueInclusion();
+        streaming = config.getPropertyNamingStrategy() == null
+                && (inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS);
+    }
+
+    @Override
+    public void serialize(UserView user, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (!streaming || provider.getActiveView() != null || filtered(user, provider)) {
+            beanSerializer.serialize(user, gen, provider);
+            return;
+        }
+        gen.writeStartObject(user);
+        gen.writeFieldName(ID);
+        writeOrNull(uuidSerializer, user.id(), gen, provider);
+        gen.writeFieldName(USERNAME);
+        gen.writeString(user.username());
+        gen.writeFieldName(EMAIL);
+        gen.writeString(user.email());
+        gen.writeFieldName(EMAIL_VERIFIED);
+        gen.writeBoolean(user.emailVerified());
+        gen.writeFieldName(CREATED_AT);
+        writeOrNull(instantSerializer, user.createdAt(), gen, provider);
+        gen.writeFieldName(UPDATED_AT);
+        writeOrNull(instantSerializer, user.updatedAt(), gen, provider);
+        gen.writeFieldName(DELETED_AT);
+        writeOrNull(instantSerializer, user.deletedAt(), gen, provider);
+        gen.writeFieldName(VERSION);
+        gen.writeNumber(user.version());
+        gen.writeEndObject();
+    }
+
+    /**
+     * True unless the {@code userView} filter in effect would keep every property.
+     */
+    private static boolean filtered(UserView user, SerializerProvider provider) {
+        FilterProvider filters = provider.getFilterProvider();
+        if (filters == null) {
+            // let the bean serializer report the missing filter provider
+            return true;
+        }
+        PropertyFilter filter = filters.findPropertyFilter(UserView.FILTER, user);
+        return filter != null && filter != SimpleBeanPropertyFilter.serializeAll();
+    }
+
+    private static void writeOrNull(JsonSerializer<Object> serializer, Object value, JsonGenerator gen,
+            SerializerProvider provider) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            serializer.serialize(value, gen, provider);
+        }
+    }
+}
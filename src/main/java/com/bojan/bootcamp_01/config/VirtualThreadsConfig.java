@@ -0,0 +1,70 @@
+package com.bojan.bootcamp_01.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Support for running the request path on virtual threads
+ * ({@code spring.threads.virtual.enabled=true}): a fair limiter in front of the
+ * connection pool and optional pinning diagnostics.
+ */
+@Configuration
+@EnableConfigurationProperties(DbLimiterProperties.class)
+public class VirtualThreadsConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.db.limiter.enabled", havingValue = "true")
+    public DbConcurrencyLimiter dbConcurrencyLimiter(DbLimiterProperties properties) {
+        return new DbConcurrencyLimiter(properties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.db.limiter.enabled", havingValue = "true")
+    public static BeanPostProcessor dbConcurrencyLimitingPostProcessor(ObjectProvider<DbConcurrencyLimiter> limiter) {
+        return new LimitingPostProcessor(limiter);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.virtual-threads.pinning-monitor.enabled", havingValue = "true")
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${app.virtual-threads.pinning-monitor.threshold:20ms}") Duration threshold,
+            MeterRegistry meterRegistry) {
+        return new VirtualThreadPinningMonitor(threshold, meterRegistry);
+    }
+
+    /**
+     * Ordered so it wraps the Hikari pool before the unordered replica routing wrapper.
+     */
+    private static final class LimitingPostProcessor implements BeanPostProcessor, Ordered {
+        private final ObjectProvider<DbConcurrencyLimiter> limiter;
+
+        LimitingPostProcessor(ObjectProvider<DbConcurrencyLimiter> limiter) {
+            this.limiter = limiter;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                return limiter.getObject().wrap(dataSource);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -1,26 +1,74 @@
 package com.bojan.bootcamp_01.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.bojan.bootcamp_01.config.UserEventsProperties;
+import com.bojan.bootcamp_01.dto.EmailVerificationDto;
+import com.bojan.bootcamp_01.dto.UserBulkDeleteReport;
+import com.bojan.bootcamp_01.dto.UserCursor;
+import com.bojan.bootcamp_01.dto.UserEvent;
+import com.bojan.bootcamp_01.dto.UserEventPage;
+import com.bojan.bootcamp_01.dto.UserImportReport;
+import com.bojan.bootcamp_01.dto.UserLoginDto;
+import com.bojan.bootcamp_01.dto.UserMetadata;
+import com.bojan.bootcamp_01.dto.UserPage;
 import com.bojan.bootcamp_01.dto.UserRegistrationDto;
 import com.bojan.bootcamp_01.dto.UserUpdateDto;
+import com.bojan.bootcamp_01.dto.UserView;
 import com.bojan.bootcamp_01.entity.User;
 import com.bojan.bootcamp_01.repository.UserRepository;
+import com.bojan.bootcamp_01.service.HashingQueueFullException;
+import com.bojan.bootcamp_01.service.LoginService;
+import com.bojan.bootcamp_01.service.PasswordHashingService;
+import com.bojan.bootcamp_01.service.UserCache;
+import com.bojan.bootcamp_01.service.UserConflictException;
+import com.bojan.bootcamp_01.service.UserEventFeed;
+import com.bojan.bootcamp_01.service.UserEventsExpiredException;
+import com.bojan.bootcamp_01.service.UserExportService;
+import com.bojan.bootcamp_01.service.UserImportService;
+import com.bojan.bootcamp_01.service.UserSearchService;
+import com.bojan.bootcamp_01.service.UserService;
+import com.bojan.bootcamp_01.service.UserVersionMismatchException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
@@ -29,84 +77,482 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 @Validated
 public class UserController {
+    /**
+     * Keyset order for {@code GET /api/users}; {@code ID} pages over the primary key only,
+     * which is creation order for UUIDv7 ids.
+     */
+    public enum ListOrder {
+        CREATED_AT, ID
+    }
+
+    static final String NDJSON = "application/x-ndjson";
+    static final String CSV = "text/csv";
+    static final String MERGE_PATCH = "application/merge-patch+json";
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType(CSV);
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BULK_DELETE = 1000;
+
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final UserService userService;
+    private final UserCache userCache;
+    private final PasswordHashingService passwordHashingService;
+    private final UserExportService userExportService;
+    private final UserImportService userImportService;
+    private final UserSearchService userSearchService;
+    private final LoginService loginService;
+    private final UserEventFeed userEventFeed;
+    // continuations that touch the database leave the hashing pool, which is sized for CPU
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private final AsyncTaskExecutor applicationTaskExecutor;
 
     @PostMapping
-    public ResponseEntity<User> registerUser(@Valid @RequestBody UserRegistrationDto registrationDto) {
-        User user = new User();
-        user.setId(null); // Ensure new user
-        user.setUsername(registrationDto.getUsername());
-        user.setEmail(registrationDto.getEmail());
-        // You may want to hash the password here before saving
-        user.setPasswordHash(passwordEncoder.encode(registrationDto.getPassword()));
-        // createdAt, updatedAt, deletedAt, etc. are handled by the system/DB
-        User saved = userRepository.save(user);
-        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+    public CompletableFuture<ResponseEntity<MappingJacksonValue>> registerUser(
+            @Valid @RequestBody UserRegistrationDto registrationDto) {
+        CompletableFuture<String> passwordHash;
+        try {
+            // hashing runs on its own bounded pool; the servlet thread is released here
+            passwordHash = passwordHashingService.encode(registrationDto.getPassword());
+        } catch (HashingQueueFullException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .<MappingJacksonValue>build());
+        }
+        return passwordHash.thenApplyAsync(hash -> {
+            try {
+                User saved = userService.create(registrationDto.getUsername(), registrationDto.getEmail(), hash);
+                return ResponseEntity.status(HttpStatus.CREATED).body(allFields(UserView.of(saved)));
+            } catch (UserConflictException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).<MappingJacksonValue>build();
+            }
+        }, applicationTaskExecutor);
+    }
+
+    /**
+     * 401 for a wrong email or password, 423 while the account is locked and 429 when the
+     * client has too many recent failures; the last two carry Retry-After.
+     */
+    @PostMapping("/login")
+    public CompletableFuture<ResponseEntity<MappingJacksonValue>> login(@Valid @RequestBody UserLoginDto loginDto,
+            HttpServletRequest request) {
+        CompletableFuture<LoginService.Result> result;
+        try {
+            result = loginService.login(loginDto.getEmail(), loginDto.getPassword(), request.getRemoteAddr());
+        } catch (HashingQueueFullException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .<MappingJacksonValue>build());
+        }
+        return result.thenApplyAsync(login -> switch (login.outcome()) {
+            case SUCCESS -> userCache.findById(login.userId())
+                    .map(user -> ResponseEntity.ok(allFields(user)))
+                    .orElse(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+            case INVALID_CREDENTIALS -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).<MappingJacksonValue>build();
+            case ACCOUNT_LOCKED -> ResponseEntity.status(HttpStatus.LOCKED)
+                    .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(login.retryAfter()))
+                    .<MappingJacksonValue>build();
+            case TOO_MANY_ATTEMPTS -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(login.retryAfter()))
+                    .<MappingJacksonValue>build();
+        }, applicationTaskExecutor);
+    }
+
+    /**
+     * Verifies the email address of the user the token was sent to. The token is in the
+     * body rather than the URL so it stays out of access logs; 400 when it is unknown,
+     * expired or already used.
+     */
+    @PostMapping("/verify-email")
+    public ResponseEntity<MappingJacksonValue> verifyEmail(@Valid @RequestBody EmailVerificationDto verificationDto) {
+        return userService.verifyEmail(verificationDto.getToken())
+                .map(user -> ResponseEntity.ok(allFields(user)))
+                .orElse(ResponseEntity.badRequest().body(null));
     }
 
+    /**
+     * Bulk-creates users from {@code text/csv} or {@code application/x-ndjson}, one user per
+     * line. CSV needs a header naming {@code username}, {@code email} and {@code password};
+     * a field containing a comma or quote must be double-quoted, with inner quotes doubled,
+     * and may not span lines. Rows that fail to parse or validate are listed in the report;
+     * 400 when the CSV header is missing or malformed.
+     */
+    @PostMapping(path = "/import", consumes = { CSV, NDJSON })
+    public ResponseEntity<UserImportReport> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        UserImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(TEXT_CSV)
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+        try {
+            return ResponseEntity.ok(userImportService.importUsers(body, format));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+
+    /**
+     * The ETag is the user's version; a matching {@code If-None-Match} gets 304 without a body.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable UUID id) {
-        return userRepository.findById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<MappingJacksonValue> getUserById(@PathVariable UUID id,
+            @RequestParam(required = false) Set<String> fields,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (!validFields(fields)) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        return userCache.findById(id)
+                .map(user -> notModified(ifNoneMatch, user.version())
+                        ? ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag(user.version())).<MappingJacksonValue>build()
+                        : ResponseEntity.ok().eTag(etag(user.version())).body(withFields(user, fields)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/search")
-    public ResponseEntity<User> searchUser(@RequestParam(required = false) String username,
-            @RequestParam(required = false) String email) {
+    public ResponseEntity<MappingJacksonValue> searchUser(@RequestParam(required = false) String username,
+            @RequestParam(required = false) String email, @RequestParam(required = false) Set<String> fields) {
+        if (!validFields(fields)) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        Optional<UserView> found;
         if (username != null) {
-            return userRepository.findByUsername(username)
-                    .map(ResponseEntity::ok)
-                    .orElse(ResponseEntity.notFound().build());
+            found = userCache.findByUsername(username);
         } else if (email != null) {
-            return userRepository.findByEmail(email)
-                    .map(ResponseEntity::ok)
-                    .orElse(ResponseEntity.notFound().build());
+            found = userCache.findByEmail(email);
         } else {
             return ResponseEntity.notFound().build();
         }
+        return found
+                .map(user -> ResponseEntity.ok(withFields(user, fields)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/search/text")
+    public ResponseEntity<MappingJacksonValue> searchUsersByText(@RequestParam String q,
+            @RequestParam(defaultValue = "PREFIX") UserSearchService.Mode mode,
+            @RequestParam(defaultValue = "20") int limit, @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Set<String> fields) {
+        if (!validFields(fields)) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        try {
+            UserCursor after = cursor == null ? null : UserCursor.decode(cursor);
+            return ResponseEntity.ok(withFields(userSearchService.search(q, mode, limit, after), fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        } catch (QueryTimeoutException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(null);
+        }
+    }
+
+    /**
+     * Filters by metadata containment, e.g. {@code ?contains={"plan":"pro"}}.
+     */
+    @GetMapping("/search/metadata")
+    public ResponseEntity<MappingJacksonValue> searchUsersByMetadata(@RequestParam String contains,
+            @RequestParam(defaultValue = "20") int limit, @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Set<String> fields) {
+        if (!validFields(fields)) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        try {
+            UserCursor after = cursor == null ? null : UserCursor.decode(cursor);
+            return ResponseEntity.ok(withFields(userSearchService.searchMetadata(contains, limit, after), fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        } catch (QueryTimeoutException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(null);
+        }
     }
 
     @GetMapping
-    public ResponseEntity<?> getAllUsers() {
-        return ResponseEntity.ok(userRepository.findAllByDeletedAtIsNull());
+    public ResponseEntity<MappingJacksonValue> getAllUsers(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit, @RequestParam(required = false) Set<String> fields,
+            @RequestParam(defaultValue = "CREATED_AT") ListOrder order) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE || !validFields(fields)) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        UserCursor after;
+        try {
+            after = cursor == null ? null : UserCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        // fetch one extra row to learn whether another page exists without a count query
+        Limit fetch = Limit.of(limit + 1);
+        List<UserView> rows;
+        if (order == ListOrder.ID) {
+            rows = after == null
+                    ? userRepository.findActiveViewsById(fetch)
+                    : userRepository.findActiveViewsAfterId(after.id(), fetch);
+        } else {
+            rows = after == null
+                    ? userRepository.findActiveViews(fetch)
+                    : userRepository.findActiveViewsAfter(after.createdAt(), after.id(), fetch);
+        }
+        if (rows.size() <= limit) {
+            return ResponseEntity.ok(withFields(new UserPage<>(rows, null), fields));
+        }
+        List<UserView> items = rows.subList(0, limit);
+        UserPage<UserView> page = new UserPage<>(items, UserCursor.of(items.get(limit - 1)).encode());
+        return ResponseEntity.ok(withFields(page, fields));
+    }
+
+    @GetMapping(path = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportAllUsers() {
+        StreamingResponseBody body = userExportService::writeActiveUsers;
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * Change stream by offset: events published after {@code after}, or without it from the
+     * current end of the stream. With {@code wait} (seconds) an empty result is held until
+     * events arrive or the wait runs out. 410 when events after {@code after} were already
+     * purged; the client then resynchronizes from {@code GET /api/users}.
+     */
+    @GetMapping("/events")
+    public CompletableFuture<ResponseEntity<UserEventPage>> getUserEvents(
+            @RequestParam(required = false) Long after, @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "0") int wait) {
+        UserEventsProperties properties = userEventFeed.properties();
+        if (limit < 1 || limit > properties.maxLimit() || wait < 0 || (after != null && after < 0)) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(null));
+        }
+        Duration waitFor = Duration.ofSeconds(wait);
+        if (waitFor.compareTo(properties.maxWait()) > 0) {
+            waitFor = properties.maxWait();
+        }
+        long from = after == null ? userEventFeed.head() : after;
+        return userEventFeed.poll(from, limit, waitFor)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    if (cause instanceof UserEventsExpiredException) {
+                        return ResponseEntity.status(HttpStatus.GONE).<UserEventPage>build();
+                    }
+                    throw new CompletionException(cause);
+                });
     }
 
+    /**
+     * The change stream as server-sent events; each event's id is its offset, so a
+     * reconnecting client resumes through {@code Last-Event-ID}. A comment is sent whenever
+     * {@code app.users.events.max-wait} passes without events. If the client has fallen
+     * behind the retention window, an {@code expired} event ends the stream.
+     */
+    @GetMapping(path = "/events/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamUserEvents(@RequestParam(required = false) Long after,
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        long from;
+        try {
+            from = lastEventId != null ? Long.parseLong(lastEventId) : after != null ? after : userEventFeed.head();
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        if (from < 0) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        SseEmitter emitter = new SseEmitter(userEventFeed.properties().streamTimeout().toMillis());
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onError(e -> open.set(false));
+        userEventFeed.subscribe(from, new UserEventFeed.Subscriber() {
+            @Override
+            public boolean onPage(UserEventPage page) {
+                if (!open.get()) {
+                    return false;
+                }
+                try {
+                    if (page.events().isEmpty()) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    }
+                    for (UserEvent event : page.events()) {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(event.offset()))
+                                .name(event.type())
+                                .data(event, MediaType.APPLICATION_JSON));
+                    }
+                    return true;
+                } catch (IOException | IllegalStateException e) {
+                    // client went away or the emitter timed out
+                    return false;
+                }
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                if (error instanceof UserEventsExpiredException) {
+                    try {
+                        emitter.send(SseEmitter.event().name("expired").data(""));
+                        emitter.complete();
+                    } catch (IOException | IllegalStateException e) {
+                        emitter.completeWithError(e);
+                    }
+                } else {
+                    emitter.completeWithError(error);
+                }
+            }
+        });
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * 412 when {@code If-Match} names a version that is no longer current; 409 when a
+     * concurrent update without {@code If-Match} wins the race.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<User> updateUser(@PathVariable UUID id, @Valid @RequestBody UserUpdateDto userUpdateDto) {
+    public ResponseEntity<MappingJacksonValue> updateUser(@PathVariable UUID id,
+            @Valid @RequestBody UserUpdateDto userUpdateDto,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (userUpdateDto.getUsername() == null || userUpdateDto.getEmail() == null) {
             return ResponseEntity.badRequest().body(null);
         }
-
-        if (userRepository.findByUsername(userUpdateDto.getUsername()).isPresent() &&
-            !userRepository.findByUsername(userUpdateDto.getUsername()).get().getId().equals(id)) {
+        try {
+            return userService.updateIdentity(id, expectedVersion(ifMatch), userUpdateDto.getUsername(),
+                    userUpdateDto.getEmail())
+                    .map(updated -> ResponseEntity.ok().eTag(etag(updated.getVersion()))
+                            .body(allFields(UserView.of(updated))))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (UserConflictException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
+        } catch (UserVersionMismatchException e) {
+            return ResponseEntity.status(ifMatch == null ? HttpStatus.CONFLICT : HttpStatus.PRECONDITION_FAILED)
+                    .body(null);
         }
+    }
 
-        if (userRepository.findByEmail(userUpdateDto.getEmail()).isPresent() &&
-            !userRepository.findByEmail(userUpdateDto.getEmail()).get().getId().equals(id)) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> softDeleteUser(@PathVariable UUID id,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            if (!userService.softDelete(id, expectedVersion(ifMatch))) {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (UserVersionMismatchException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         }
-        return userRepository.findById(id)
-                .map(existing -> {
-                    existing.setUsername(userUpdateDto.getUsername());
-                    existing.setEmail(userUpdateDto.getEmail());
-                    User updated = userRepository.save(existing);
-                    return ResponseEntity.ok(updated);
-                })
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping(path = "/{id}/metadata", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> getUserMetadata(@PathVariable UUID id) {
+        return userRepository.findMetadataJson(id)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    @DeleteMapping("/{id}")
-    public ResponseEntity<Void> softDeleteUser(@PathVariable UUID id) {
-        return userRepository.findById(id)
-                .map(user -> {
-                    user.setDeletedAt(java.time.Instant.now());
-                    userRepository.save(user);
-                    return ResponseEntity.noContent().<Void>build();
-                })
+    /**
+     * JSON merge patch of the top-level metadata members, applied by PostgreSQL.
+     */
+    @PatchMapping(path = "/{id}/metadata", params = "!path", consumes = { MERGE_PATCH,
+            MediaType.APPLICATION_JSON_VALUE }, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> mergeUserMetadata(@PathVariable UUID id, @RequestBody ObjectNode patch,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            return metadataResponse(userService.mergeMetadata(id, expectedVersion(ifMatch), patch));
+        } catch (UserVersionMismatchException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+    }
+
+    /**
+     * Sets one value inside the metadata; {@code path} is dot-separated, e.g. {@code prefs.theme}.
+     */
+    @PatchMapping(path = "/{id}/metadata", params = "path", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> setUserMetadata(@PathVariable UUID id, @RequestParam String path,
+            @RequestBody JsonNode value,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        List<String> segments = List.of(path.split("\\.", -1));
+        if (segments.contains("")) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return metadataResponse(userService.setMetadata(id, expectedVersion(ifMatch), segments, value));
+        } catch (UserVersionMismatchException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+    }
+
+    private static ResponseEntity<String> metadataResponse(Optional<UserMetadata> updated) {
+        return updated
+                .map(metadata -> ResponseEntity.ok().eTag(etag(metadata.version())).body(metadata.json()))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @PostMapping("/delete")
+    public ResponseEntity<UserBulkDeleteReport> softDeleteUsers(@RequestBody Set<UUID> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_BULK_DELETE) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        return ResponseEntity.ok(new UserBulkDeleteReport(ids.size(), userService.softDeleteAll(ids)));
+    }
+
+    private static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Weak comparison, as {@code If-None-Match} requires.
+     */
+    private static boolean notModified(String ifNoneMatch, long version) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String expected = etag(version);
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Version named by a single-tag {@code If-Match}; null when the header is absent or
+     * {@code *}. A weak, malformed or multi-tag value yields -1, which never matches.
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    private static String retryAfterSeconds(Duration retryAfter) {
+        return Long.toString(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+    }
+
+    private static boolean validFields(Set<String> fields) {
+        return fields == null || UserView.FIELDS.containsAll(fields);
+    }
+
+    /**
+     * Serializes every field of each {@link UserView} in the body.
+     */
+    private static MappingJacksonValue allFields(Object body) {
+        return withFields(body, null);
+    }
+
+    /**
+     * Applies the {@code fields} sparse fieldset to every {@link UserView} in the body;
+     * null means all fields.
+     */
+    private static MappingJacksonValue withFields(Object body, Set<String> fields) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider().addFilter(UserView.FILTER, fields == null
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(fields)));
+        return value;
+    }
+
 }
@@ -0,0 +1,18 @@
+package com.bojan.bootcamp_01.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public class EmailVerificationDto {
+    @NotBlank
+    @Size(max = 100)
+    private String token;
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+}
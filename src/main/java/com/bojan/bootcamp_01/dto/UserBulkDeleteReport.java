@@ -0,0 +1,11 @@
+package com.bojan.bootcamp_01.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outcome of a bulk soft-delete. Requested ids missing from {@code deleted} did not exist
+ * or were already deleted.
+ */
+public record UserBulkDeleteReport(int requested, List<UUID> deleted) {
+}
@@ -0,0 +1,10 @@
+package com.bojan.bootcamp_01.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The columns a login needs, read through {@code idx_users_auth}. Never serialized.
+ */
+public record UserCredentials(UUID id, String passwordHash, int failedLoginAttempts, Instant lockoutUntil) {
+}
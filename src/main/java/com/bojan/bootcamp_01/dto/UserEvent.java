@@ -0,0 +1,18 @@
+package com.bojan.bootcamp_01.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * One published user change. {@code offset} is dense and follows commit order, so a
+ * consumer resumes by asking for events after the last offset it processed.
+ * {@code payload} is the stored JSONB, written to the response verbatim.
+ */
+@Schema(description = "User lifecycle event from the change stream")
+public record UserEvent(long offset, UUID userId, String type, Instant occurredAt,
+        @JsonRawValue @Schema(type = "object") String payload) {
+}
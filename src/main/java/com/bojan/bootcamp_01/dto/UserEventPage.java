@@ -0,0 +1,10 @@
+package com.bojan.bootcamp_01.dto;
+
+import java.util.List;
+
+/**
+ * Events after a requested offset. {@code next} is the offset to pass on the following
+ * request; it equals the requested one when nothing new was published.
+ */
+public record UserEventPage(List<UserEvent> events, long next) {
+}
@@ -0,0 +1,15 @@
+package com.bojan.bootcamp_01.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. {@code errors} is capped; {@code failed} counts every rejected row.
+ */
+public record UserImportReport(long received, long created, long failed, List<RowError> errors) {
+
+    /**
+     * @param line 1-based line number in the uploaded document
+     */
+    public record RowError(long line, String message) {
+    }
+}
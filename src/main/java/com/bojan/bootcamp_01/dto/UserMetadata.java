@@ -0,0 +1,8 @@
+package com.bojan.bootcamp_01.dto;
+
+/**
+ * A user's metadata after a partial update. {@code json} is the document as rendered by
+ * PostgreSQL and is written to the response verbatim, without a parse/serialize round trip.
+ */
+public record UserMetadata(String json, long version) {
+}
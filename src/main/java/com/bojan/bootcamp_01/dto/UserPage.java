@@ -0,0 +1,9 @@
+package com.bojan.bootcamp_01.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page of users. {@code nextCursor} is null on the last page.
+ */
+public record UserPage<T>(List<T> items, String nextCursor) {
+}
@@ -2,11 +2,13 @@ package com.bojan.bootcamp_01.dto;
 
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
 public class UserRegistrationDto {
     @NotBlank
     @Size(min = 3, max = 50)
+    @Pattern(regexp = "^[A-Za-z0-9_-]{3,50}$", message = "Username must be 3-50 characters, alphanumeric, underscore or hyphen")
     private String username;
 
     @NotBlank
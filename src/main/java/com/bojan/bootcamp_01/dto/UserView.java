@@ -0,0 +1,38 @@
+package com.bojan.bootcamp_01.dto;
+
+import java.lang.reflect.RecordComponent;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import com.bojan.bootcamp_01.entity.User;
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Public, immutable view of a user. Never carries credentials, verification tokens or
+ * metadata. Read paths load it directly through JPQL constructor projections, so no
+ * entity is hydrated or tracked by the persistence context.
+ */
+@JsonFilter(UserView.FILTER)
+@Schema(description = "User as returned by the API")
+public record UserView(UUID id, String username, String email, boolean emailVerified, Instant createdAt,
+        Instant updatedAt, Instant deletedAt, long version) {
+
+    public static final String FILTER = "userView";
+
+    /**
+     * Property names accepted by the {@code fields} sparse-fieldset parameter.
+     */
+    public static final Set<String> FIELDS = Arrays.stream(UserView.class.getRecordComponents())
+            .map(RecordComponent::getName)
+            .collect(Collectors.toUnmodifiableSet());
+
+    public static UserView of(User user) {
+        return new UserView(user.getId(), user.getUsername(), user.getEmail(), user.isEmailVerified(),
+                user.getCreatedAt(), user.getUpdatedAt(), user.getDeletedAt(), user.getVersion());
+    }
+}
@@ -1,16 +1,26 @@
 package com.bojan.bootcamp_01.entity;
 
 import java.time.Instant;
+import java.util.Map;
 import java.util.UUID;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.type.SqlTypes;
+
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -25,11 +35,18 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Entity
 @Table(name = "users")
+// updates write only the changed columns: login counters, verification tokens and metadata
+// are written by JDBC without a version bump, and a full-row UPDATE would restore stale values
+@DynamicUpdate
+// only read when the l2cache profile enables Hibernate's second-level cache
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-email")
 @Schema(description = "User entity representing application users")
 public class User {
     @Schema(description = "Unique user identifier", example = "b3b6c1e2-8c2a-4e2a-9b1a-2e3b4c5d6f7a")
     @Id
-    @GeneratedValue(generator = "UUID")
+    @UuidV7Id
     @Column(name = "id", nullable = false, updatable = false)
     private UUID id;
 
@@ -42,6 +59,7 @@ public class User {
     @NotNull
     @Email(message = "Invalid email format")
     @Schema(description = "User email", example = "user@example.com", required = true)
+    @NaturalId(mutable = true)
     @Column(name = "email", nullable = false, unique = true, length = 255)
     private String email;
 
@@ -97,6 +115,12 @@ public class User {
     }
 
     @Schema(description = "Flexible metadata as JSONB")
+    @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "metadata")
-    private String metadata;
+    private Map<String, Object> metadata;
+
+    @Schema(description = "Optimistic lock version, exposed as the ETag", example = "0")
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
 }
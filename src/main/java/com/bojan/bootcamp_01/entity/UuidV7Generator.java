@@ -0,0 +1,18 @@
+package com.bojan.bootcamp_01.entity;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import com.bojan.bootcamp_01.util.UuidV7;
+
+/**
+ * Assigns {@link UuidV7} ids before insert. Consecutive ids are increasing, so new rows
+ * append to the right-most primary key page instead of splitting random ones.
+ */
+public class UuidV7Generator implements IdentifierGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return UuidV7.next();
+    }
+}
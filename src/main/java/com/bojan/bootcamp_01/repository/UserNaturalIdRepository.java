@@ -0,0 +1,18 @@
+package com.bojan.bootcamp_01.repository;
+
+import java.util.Optional;
+
+import com.bojan.bootcamp_01.entity.User;
+
+/**
+ * Lookups by the {@code email} natural id, implemented in {@link UserNaturalIdRepositoryImpl}.
+ */
+public interface UserNaturalIdRepository {
+
+    /**
+     * Resolves the email through Hibernate's natural-id API rather than a query, so with
+     * the {@code l2cache} profile a repeated lookup is served from the natural-id and
+     * entity caches without touching the database. Includes soft-deleted users.
+     */
+    Optional<User> findByEmail(String email);
+}
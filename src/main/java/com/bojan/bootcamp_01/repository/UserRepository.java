@@ -1,31 +1,146 @@
 package com.bojan.bootcamp_01.repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.bojan.bootcamp_01.dto.UserCredentials;
+import com.bojan.bootcamp_01.dto.UserView;
 import com.bojan.bootcamp_01.entity.User;
 
-public interface UserRepository extends JpaRepository<User, UUID> {
-    Optional<User> findByUsername(String username);
-
-    Optional<User> findByEmail(String email);
+import jakarta.persistence.QueryHint;
 
-    List<User> findAllByEmailVerified(boolean emailVerified);
+public interface UserRepository extends JpaRepository<User, UUID>, UserNaturalIdRepository {
+    /**
+     * JPQL prefix selecting {@link UserView} projections; read paths use it so that no
+     * entity is hydrated, snapshotted for dirty checking or serialized with secrets.
+     */
+    String SELECT_VIEW = "SELECT new com.bojan.bootcamp_01.dto.UserView(u.id, u.username, u.email, "
+            + "u.emailVerified, u.createdAt, u.updatedAt, u.deletedAt, u.version) FROM User u ";
+    String SELECT_CREDENTIALS = "SELECT new com.bojan.bootcamp_01.dto.UserCredentials(u.id, u.passwordHash, "
+            + "u.failedLoginAttempts, u.lockoutUntil) FROM User u ";
+    // Partitioned schema only: user_id_by_key() resolves a username or email through
+    // user_unique_keys, and comparing it to the partition key prunes to one partition
+    String ID_BY_USERNAME = "function('user_id_by_key', 'u', :username)";
+    String ID_BY_EMAIL = "function('user_id_by_key', 'e', :email)";
 
-    List<User> findAllByDeletedAtIsNull();
+    // The lookups marked CACHEABLE keep their results in Hibernate's query cache when the
+    // l2cache profile enables it; without the profile the hint is ignored.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<User> findByUsername(String username);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     boolean existsByEmail(String email);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     boolean existsByUsername(String username);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT u FROM User u WHERE u.email = :email AND u.deletedAt IS NULL")
     Optional<User> findActiveByEmail(@Param("email") String email);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT u FROM User u WHERE u.username = :username AND u.deletedAt IS NULL")
     Optional<User> findActiveByUsername(@Param("username") String username);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW + "WHERE u.id = :id")
+    Optional<UserView> findViewById(@Param("id") UUID id);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW + "WHERE u.username = :username")
+    Optional<UserView> findViewByUsername(@Param("username") String username);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW + "WHERE u.email = :email")
+    Optional<UserView> findViewByEmail(@Param("email") String email);
+
+    /**
+     * First keyset page of active users ordered by {@code (createdAt, id)}.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW + "WHERE u.deletedAt IS NULL ORDER BY u.createdAt ASC, u.id ASC")
+    List<UserView> findActiveViews(Limit limit);
+
+    /**
+     * Keyset page of active users strictly after the given {@code (createdAt, id)} position.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW + "WHERE u.deletedAt IS NULL "
+            + "AND (u.createdAt > :createdAt OR (u.createdAt = :createdAt AND u.id > :id)) "
+            + "ORDER BY u.createdAt ASC, u.id ASC")
+    List<UserView> findActiveViewsAfter(@Param("createdAt") Instant createdAt, @Param("id") UUID id, Limit limit);
+
+    /**
+     * First keyset page of active users ordered by primary key alone. UUIDv7 ids sort by
+     * creation time, so for rows created since changeSet 12 this is chronological order
+     * served straight from the primary key index; older v4 ids sort randomly among them.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW + "WHERE u.deletedAt IS NULL ORDER BY u.id ASC")
+    List<UserView> findActiveViewsById(Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW + "WHERE u.deletedAt IS NULL AND u.id > :id ORDER BY u.id ASC")
+    List<UserView> findActiveViewsAfterId(@Param("id") UUID id, Limit limit);
+
+    /**
+     * Streams all active users through a server-side JDBC cursor. Must be consumed inside a
+     * (read-only) transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_VIEW + "WHERE u.deletedAt IS NULL ORDER BY u.createdAt ASC, u.id ASC")
+    Stream<UserView> streamActiveViews();
+
+    /**
+     * Metadata of an active user as JSON text, rendered by PostgreSQL; an empty object when unset.
+     */
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT CAST(COALESCE(metadata, CAST('{}' AS jsonb)) AS text) FROM users "
+            + "WHERE id = :id AND deleted_at IS NULL", nativeQuery = true)
+    Optional<String> findMetadataJson(@Param("id") UUID id);
+
+    /**
+     * Loads the user being updated together with any other user that already holds the
+     * requested username or email, so a PUT can detect conflicts in a single round trip.
+     */
+    @Query("SELECT u FROM User u WHERE u.id = :id OR u.username = :username OR u.email = :email")
+    List<User> findUpdateCandidates(@Param("id") UUID id, @Param("username") String username,
+            @Param("email") String email);
+
+    /**
+     * Login lookup; reads only what {@code idx_users_auth} and the lockout columns need.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_CREDENTIALS + "WHERE u.email = :email AND u.deletedAt IS NULL")
+    Optional<UserCredentials> findCredentialsByEmail(@Param("email") String email);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW + "WHERE u.id = " + ID_BY_USERNAME)
+    Optional<UserView> findViewByUsernameKey(@Param("username") String username);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW + "WHERE u.id = " + ID_BY_EMAIL)
+    Optional<UserView> findViewByEmailKey(@Param("email") String email);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_CREDENTIALS + "WHERE u.id = " + ID_BY_EMAIL + " AND u.deletedAt IS NULL")
+    Optional<UserCredentials> findCredentialsByEmailKey(@Param("email") String email);
+
+    /**
+     * {@link #findUpdateCandidates} for the partitioned schema; touches at most three partitions.
+     */
+    @Query("SELECT u FROM User u WHERE u.id IN (:id, " + ID_BY_USERNAME + ", " + ID_BY_EMAIL + ")")
+    List<User> findUpdateCandidatesByKey(@Param("id") UUID id, @Param("username") String username,
+            @Param("email") String email);
 }
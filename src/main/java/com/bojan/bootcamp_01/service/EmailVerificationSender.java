@@ -0,0 +1,12 @@
+package com.bojan.bootcamp_01.service;
+
+import java.util.UUID;
+
+/**
+ * Delivers verification tokens to users. Called after the transaction that stored the
+ * token's hash has committed; the plain token exists nowhere else.
+ */
+public interface EmailVerificationSender {
+
+    void send(UUID userId, String email, String token);
+}
@@ -0,0 +1,138 @@
+package com.bojan.bootcamp_01.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bojan.bootcamp_01.config.EmailVerificationProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Replaces expired email verification tokens: users registered within
+ * {@code app.users.verification.reissue-within} get a new token, older ones only have
+ * theirs cleared.
+ * <p>
+ * Candidates are read in {@code (email_verification_sent_at, id)} keyset batches from the
+ * partial index {@code idx_users_verification_pending}, locked with {@code SKIP LOCKED}
+ * so several nodes can sweep at once, and updated with a single {@code unnest} statement
+ * per batch. Token columns are not part of {@code UserView}, so the sweep neither bumps
+ * {@code version} nor records user events. New tokens are sent after their batch commits.
+ */
+public class EmailVerificationSweeper {
+    private static final Logger log = LoggerFactory.getLogger(EmailVerificationSweeper.class);
+    private static final String SELECT_BATCH_SQL = "SELECT id, email, created_at, email_verification_sent_at "
+            + "FROM users WHERE email_verification_token IS NOT NULL AND email_verified = false "
+            + "AND deleted_at IS NULL AND email_verification_sent_at < ? "
+            + "AND (email_verification_sent_at, id) > (?, ?) "
+            + "ORDER BY email_verification_sent_at, id LIMIT ? FOR UPDATE SKIP LOCKED";
+    // a null hash expires the token; sent_at is cleared with it so the row leaves the index
+    private static final String UPDATE_BATCH_SQL = "UPDATE users u SET email_verification_token = t.token_hash, "
+            + "email_verification_sent_at = CASE WHEN t.token_hash IS NULL THEN NULL ELSE CAST(? AS timestamp) END "
+            + "FROM unnest(?::uuid[], ?::text[]) AS t(id, token_hash) WHERE u.id = t.id";
+
+    public record Result(long reissued, long expired) {
+    }
+
+    private record Candidate(UUID id, String email, Instant createdAt, Timestamp sentAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EmailVerificationTokens tokens;
+    private final EmailVerificationProperties properties;
+    private final Counter reissuedCounter;
+    private final Counter expiredCounter;
+
+    public EmailVerificationSweeper(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            EmailVerificationTokens tokens, EmailVerificationProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tokens = tokens;
+        this.properties = properties;
+        this.reissuedCounter = Counter.builder("users.verification.tokens")
+                .description("Expired verification tokens replaced or cleared by the sweeper")
+                .tag("outcome", "reissued")
+                .register(meterRegistry);
+        this.expiredCounter = Counter.builder("users.verification.tokens")
+                .description("Expired verification tokens replaced or cleared by the sweeper")
+                .tag("outcome", "expired")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.users.verification.sweep-interval:5m}",
+            initialDelayString = "${app.users.verification.sweep-interval:5m}")
+    public void run() {
+        Result result = sweep(Instant.now());
+        if (result.reissued() > 0 || result.expired() > 0) {
+            log.info("Reissued {} and cleared {} expired verification tokens", result.reissued(), result.expired());
+        }
+    }
+
+    public Result sweep(Instant now) {
+        Timestamp expiredBefore = Timestamp.from(now.minus(properties.tokenTtl()));
+        Instant reissueCutoff = now.minus(properties.reissueWithin());
+        Timestamp issuedAt = Timestamp.from(now);
+        Candidate[] position = { new Candidate(new UUID(0, 0), null, null, Timestamp.from(Instant.EPOCH)) };
+        long reissued = 0;
+        long expired = 0;
+        for (int batch = 0; batch < properties.maxBatches(); batch++) {
+            long[] counts = transactionTemplate.execute(status -> {
+                jdbcTemplate.execute("SET LOCAL lock_timeout = '2s'");
+                List<Candidate> candidates = jdbcTemplate.query(SELECT_BATCH_SQL,
+                        (rs, rowNum) -> new Candidate(rs.getObject("id", UUID.class), rs.getString("email"),
+                                rs.getTimestamp("created_at").toInstant(),
+                                rs.getTimestamp("email_verification_sent_at")),
+                        expiredBefore, position[0].sentAt(), position[0].id(), properties.batchSize());
+                if (candidates.isEmpty()) {
+                    return new long[] { 0, 0, 0 };
+                }
+                position[0] = candidates.get(candidates.size() - 1);
+                UUID[] ids = new UUID[candidates.size()];
+                String[] hashes = new String[candidates.size()];
+                long renewed = 0;
+                for (int i = 0; i < ids.length; i++) {
+                    Candidate candidate = candidates.get(i);
+                    ids[i] = candidate.id();
+                    if (candidate.createdAt().isAfter(reissueCutoff)) {
+                        String token = tokens.newToken();
+                        hashes[i] = EmailVerificationTokens.hash(token);
+                        tokens.sendAfterCommit(candidate.id(), candidate.email(), token);
+                        renewed++;
+                    }
+                }
+                jdbcTemplate.update(connection -> updateBatch(connection, issuedAt, ids, hashes));
+                return new long[] { candidates.size(), renewed, candidates.size() - renewed };
+            });
+            reissued += counts[1];
+            expired += counts[2];
+            reissuedCounter.increment(counts[1]);
+            expiredCounter.increment(counts[2]);
+            if (counts[0] < properties.batchSize()) {
+                break;
+            }
+        }
+        return new Result(reissued, expired);
+    }
+
+    private static PreparedStatement updateBatch(Connection connection, Timestamp issuedAt, UUID[] ids,
+            String[] hashes) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(UPDATE_BATCH_SQL);
+        statement.setTimestamp(1, issuedAt);
+        statement.setArray(2, connection.createArrayOf("uuid", ids));
+        statement.setArray(3, connection.createArrayOf("text", hashes));
+        return statement;
+    }
+}
@@ -0,0 +1,97 @@
+package com.bojan.bootcamp_01.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.bojan.bootcamp_01.config.EmailVerificationProperties;
+import com.bojan.bootcamp_01.entity.User;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Issues email verification tokens. {@code email_verification_token} holds the SHA-256 of
+ * the token, so a leaked table or backup cannot verify anyone, and a lookup is an exact
+ * match on the unique partial index {@code idx_users_email_verification_token}. Tokens
+ * carry 256 random bits, which is why an unsalted hash is enough.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmailVerificationTokens {
+    private static final Logger log = LoggerFactory.getLogger(EmailVerificationTokens.class);
+    private static final int TOKEN_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final EmailVerificationSender sender;
+    private final EmailVerificationProperties properties;
+
+    public String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Stores a new token's hash on {@code user}, which is about to be saved.
+     *
+     * @return the plain token, for {@link #sendAfterCommit}
+     */
+    public String issue(User user) {
+        String token = newToken();
+        user.setEmailVerificationToken(hash(token));
+        user.setEmailVerificationSentAt(Instant.now());
+        return token;
+    }
+
+    /**
+     * Oldest issue time of a token that still verifies.
+     */
+    public Instant validSince() {
+        return Instant.now().minus(properties.tokenTtl());
+    }
+
+    /**
+     * Sends the token once the current transaction commits, or right away outside one.
+     * A failed send is only logged: the token expires unused and the sweeper issues a new one.
+     */
+    public void sendAfterCommit(UUID userId, String email, String token) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(userId, email, token);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                send(userId, email, token);
+            }
+        });
+    }
+
+    private void send(UUID userId, String email, String token) {
+        try {
+            sender.send(userId, email, token);
+        } catch (RuntimeException e) {
+            log.warn("Could not send verification token to user {}", userId, e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.bojan.bootcamp_01.service;
+
+/**
+ * Thrown when the password hashing queue is saturated and the caller should back off.
+ */
+public class HashingQueueFullException extends RuntimeException {
+    public HashingQueueFullException() {
+        super("Password hashing queue is full");
+    }
+}
@@ -0,0 +1,195 @@
+package com.bojan.bootcamp_01.service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.context.SmartLifecycle;
+
+import com.bojan.bootcamp_01.config.HealthSamplerProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * Samples database, connection pool and password hashing health on a background
+ * thread and keeps the latest result as an immutable snapshot.
+ * <p>
+ * Probes read {@link #health(String)}, which never touches the pool, so a saturated
+ * Hikari cannot make them queue behind real traffic. The database check runs on its
+ * own thread and is abandoned after {@code app.health.sampler.timeout}; while an
+ * abandoned check is still stuck no new one is started. A snapshot older than
+ * {@code stale-after} is reported as DOWN.
+ */
+public class HealthSampler implements SmartLifecycle {
+    public static final String DATABASE = "database";
+    public static final String CONNECTION_POOL = "connectionPool";
+    public static final String PASSWORD_HASHING = "passwordHashing";
+
+    private static final Logger log = LoggerFactory.getLogger(HealthSampler.class);
+
+    private final DataSource dataSource;
+    private final PasswordHashingService passwordHashingService;
+    private final HealthSamplerProperties properties;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService databaseProbe;
+    private volatile Snapshot snapshot = new Snapshot(null, Map.of());
+    private volatile boolean running;
+    // set while checkDatabase runs; a cancelled Future reports done even when its worker is still stuck
+    private volatile boolean databaseCheckRunning;
+
+    public HealthSampler(DataSource dataSource, PasswordHashingService passwordHashingService,
+            HealthSamplerProperties properties) {
+        this.dataSource = dataSource;
+        this.passwordHashingService = passwordHashingService;
+        this.properties = properties;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemon("health-sampler"));
+        this.databaseProbe = Executors.newSingleThreadExecutor(daemon("health-db-probe"));
+    }
+
+    public Health health(String component) {
+        Snapshot current = snapshot;
+        if (current.sampledAt() == null) {
+            return Health.unknown().withDetail("reason", "not sampled yet").build();
+        }
+        Duration age = Duration.between(current.sampledAt(), Instant.now());
+        if (age.compareTo(properties.staleAfter()) > 0) {
+            return Health.down()
+                    .withDetail("reason", "health sample is stale")
+                    .withDetail("sampledAt", current.sampledAt())
+                    .build();
+        }
+        return current.components().get(component);
+    }
+
+    public Instant sampledAt() {
+        return snapshot.sampledAt();
+    }
+
+    void sample() {
+        try {
+            snapshot = new Snapshot(Instant.now(), Map.of(
+                    DATABASE, sampleDatabase(),
+                    CONNECTION_POOL, samplePool(),
+                    PASSWORD_HASHING, sampleHashing()));
+        } catch (RuntimeException e) {
+            // keep the schedule alive; the old snapshot goes stale if this persists
+            log.warn("Health sample failed: {}", e.getMessage());
+        }
+    }
+
+    private Health sampleDatabase() {
+        if (databaseCheckRunning) {
+            return Health.down().withDetail("error", "previous check has not returned").build();
+        }
+        Future<Health> check = databaseProbe.submit(this::checkDatabase);
+        try {
+            return check.get(properties.timeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // interrupts a pool checkout; a socket read stays stuck until the driver gives up
+            check.cancel(true);
+            return Health.down().withDetail("error", "timed out after " + properties.timeout().toMillis() + "ms")
+                    .build();
+        } catch (ExecutionException e) {
+            return Health.down(e.getCause() instanceof Exception cause ? cause : e).build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Health.unknown().build();
+        }
+    }
+
+    private Health checkDatabase() throws SQLException {
+        databaseCheckRunning = true;
+        long started = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            int timeoutSeconds = (int) Math.max(1, properties.timeout().toSeconds());
+            if (!connection.isValid(timeoutSeconds)) {
+                return Health.down().withDetail("error", "connection is not valid").build();
+            }
+            return Health.up()
+                    .withDetail("database", connection.getMetaData().getDatabaseProductName())
+                    .withDetail("latencyMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started))
+                    .build();
+        } finally {
+            databaseCheckRunning = false;
+        }
+    }
+
+    private Health samplePool() {
+        HikariPoolMXBean pool = hikariPool();
+        if (pool == null) {
+            return Health.unknown().withDetail("reason", "no started Hikari pool").build();
+        }
+        int waiting = pool.getThreadsAwaitingConnection();
+        return Health.status(waiting > properties.poolMaxWaiting() ? Status.OUT_OF_SERVICE : Status.UP)
+                .withDetail("active", pool.getActiveConnections())
+                .withDetail("idle", pool.getIdleConnections())
+                .withDetail("total", pool.getTotalConnections())
+                .withDetail("waiting", waiting)
+                .build();
+    }
+
+    private HikariPoolMXBean hikariPool() {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class)
+                    ? dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean()
+                    : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private Health sampleHashing() {
+        int depth = passwordHashingService.queueDepth();
+        int capacity = passwordHashingService.queueCapacity();
+        boolean backedUp = depth >= capacity * properties.hashingQueueThreshold();
+        return Health.status(backedUp ? Status.OUT_OF_SERVICE : Status.UP)
+                .withDetail("queueDepth", depth)
+                .withDetail("queueCapacity", capacity)
+                .build();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        scheduler.scheduleWithFixedDelay(this::sample, 0, properties.interval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        scheduler.shutdownNow();
+        databaseProbe.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record Snapshot(Instant sampledAt, Map<String, Health> components) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.bojan.bootcamp_01.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import com.bojan.bootcamp_01.dto.UserEvent;
+
+/**
+ * Keeps the most recently published events in memory. The default sink when no other
+ * {@link UserEventSink} is configured; consumers outside the process read the stream
+ * over HTTP instead, so nothing is lost by bounding it.
+ */
+public class InMemoryUserEventSink implements UserEventSink {
+    private final int capacity;
+    private final Deque<UserEvent> events = new ArrayDeque<>();
+
+    public InMemoryUserEventSink(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(List<UserEvent> published) {
+        for (UserEvent event : published) {
+            // a batch retried after a failed commit arrives again with the same offsets
+            if (events.isEmpty() || event.offset() > events.peekLast().offset()) {
+                if (events.size() == capacity) {
+                    events.removeFirst();
+                }
+                events.addLast(event);
+            }
+        }
+    }
+
+    public synchronized List<UserEvent> events() {
+        return List.copyOf(events);
+    }
+}
@@ -0,0 +1,19 @@
+package com.bojan.bootcamp_01.service;
+
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Default {@link EmailVerificationSender} when no mail transport is configured. Logs that
+ * a token was issued but never the token itself.
+ */
+public class LoggingEmailVerificationSender implements EmailVerificationSender {
+    private static final Logger log = LoggerFactory.getLogger(LoggingEmailVerificationSender.class);
+
+    @Override
+    public void send(UUID userId, String email, String token) {
+        log.info("Verification token issued for user {}; no mail transport is configured", userId);
+    }
+}
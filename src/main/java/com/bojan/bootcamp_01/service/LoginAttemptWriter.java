@@ -0,0 +1,135 @@
+package com.bojan.bootcamp_01.service;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.bojan.bootcamp_01.config.LoginThrottleProperties;
+
+/**
+ * Write-behind for {@code failed_login_attempts} and {@code lockout_until}.
+ * <p>
+ * Login outcomes are merged per user in memory and flushed every
+ * {@code app.security.login.flush-interval} as two JDBC batches, so a credential-stuffing
+ * burst against one account costs one UPDATE per interval instead of one per attempt.
+ * The attempt counter saturates at the column's CHECK limit of 10. Pending updates are
+ * flushed on shutdown; a crash loses at most one interval, which only makes the stored
+ * counters more lenient.
+ */
+@Service
+public class LoginAttemptWriter implements SmartLifecycle {
+    static final int MAX_STORED_ATTEMPTS = 10;
+
+    private static final Logger log = LoggerFactory.getLogger(LoginAttemptWriter.class);
+    private static final String RESET_SQL = "UPDATE users SET failed_login_attempts = 0, lockout_until = NULL "
+            + "WHERE id = ? AND (failed_login_attempts <> 0 OR lockout_until IS NOT NULL)";
+    private static final String FAILURE_SQL = "UPDATE users SET failed_login_attempts = "
+            + "LEAST(failed_login_attempts + ?, " + MAX_STORED_ATTEMPTS + "), "
+            + "lockout_until = GREATEST(lockout_until, ?) WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LoginThrottleProperties properties;
+    private final Map<UUID, Pending> pending = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+    private volatile boolean running;
+
+    public LoginAttemptWriter(JdbcTemplate jdbcTemplate, LoginThrottleProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * @param lockoutUntil new lockout to store, or null to leave the column as is
+     */
+    public void recordFailure(UUID userId, Instant lockoutUntil) {
+        pending.merge(userId, new Pending(false, 1, lockoutUntil), Pending::then);
+    }
+
+    public void recordSuccess(UUID userId) {
+        pending.merge(userId, new Pending(true, 0, null), Pending::then);
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    void flush() {
+        List<Object[]> resets = new ArrayList<>();
+        List<Object[]> failures = new ArrayList<>();
+        for (UUID id : pending.keySet()) {
+            Pending update = pending.remove(id);
+            if (update == null) {
+                continue;
+            }
+            if (update.reset()) {
+                resets.add(new Object[] { id });
+            }
+            if (update.failures() > 0) {
+                Timestamp lockout = update.lockoutUntil() == null ? null : Timestamp.from(update.lockoutUntil());
+                failures.add(new Object[] { Math.min(update.failures(), MAX_STORED_ATTEMPTS), lockout, id });
+            }
+        }
+        try {
+            // resets first, so failures recorded after a successful login survive the flush
+            if (!resets.isEmpty()) {
+                jdbcTemplate.batchUpdate(RESET_SQL, resets, new int[] { Types.OTHER });
+            }
+            if (!failures.isEmpty()) {
+                jdbcTemplate.batchUpdate(FAILURE_SQL, failures, new int[] { Types.INTEGER, Types.TIMESTAMP, Types.OTHER });
+            }
+        } catch (DataAccessException e) {
+            log.warn("Dropped {} login attempt updates: {}", resets.size() + failures.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "login-attempt-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.flushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        flusher.shutdown();
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private record Pending(boolean reset, int failures, Instant lockoutUntil) {
+
+        Pending then(Pending next) {
+            if (next.reset()) {
+                return next;
+            }
+            Instant lockout = lockoutUntil == null || (next.lockoutUntil() != null
+                    && next.lockoutUntil().isAfter(lockoutUntil)) ? next.lockoutUntil() : lockoutUntil;
+            return new Pending(reset, failures + next.failures(), lockout);
+        }
+    }
+}
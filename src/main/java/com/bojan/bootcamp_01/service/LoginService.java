@@ -0,0 +1,128 @@
+package com.bojan.bootcamp_01.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.bojan.bootcamp_01.config.LoginThrottleProperties;
+import com.bojan.bootcamp_01.config.UserPartitioningProperties;
+import com.bojan.bootcamp_01.dto.UserCredentials;
+import com.bojan.bootcamp_01.repository.UserRepository;
+import com.bojan.bootcamp_01.util.StripedSlidingWindow;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Password login with in-memory throttling.
+ * <p>
+ * Failures are counted per client IP and per account in {@link StripedSlidingWindow}s.
+ * An IP over its limit, or an account that is locked (in memory or by a stored
+ * {@code lockout_until}), is rejected before the password hash is checked, so an attack
+ * costs neither BCrypt time nor a database write per attempt. Counter changes reach the
+ * {@code users} table through {@link LoginAttemptWriter}. Unknown emails are checked
+ * against a dummy hash so response time does not reveal which accounts exist.
+ */
+@Service
+public class LoginService {
+    public enum Outcome {
+        SUCCESS, INVALID_CREDENTIALS, ACCOUNT_LOCKED, TOO_MANY_ATTEMPTS
+    }
+
+    /**
+     * @param userId     set on success
+     * @param retryAfter set when the outcome is {@link Outcome#ACCOUNT_LOCKED} or
+     *                   {@link Outcome#TOO_MANY_ATTEMPTS}
+     */
+    public record Result(Outcome outcome, UUID userId, Duration retryAfter) {
+
+        static Result of(Outcome outcome) {
+            return new Result(outcome, null, null);
+        }
+    }
+
+    private final Function<String, Optional<UserCredentials>> credentialsLoader;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginAttemptWriter attemptWriter;
+    private final LoginThrottleProperties properties;
+    private final StripedSlidingWindow accountFailures;
+    private final StripedSlidingWindow ipFailures;
+    private final Cache<String, Instant> lockouts;
+    private final String dummyHash;
+
+    public LoginService(UserRepository userRepository, PasswordHashingService passwordHashingService,
+            PasswordEncoder passwordEncoder, LoginAttemptWriter attemptWriter, LoginThrottleProperties properties,
+            UserPartitioningProperties partitioning) {
+        this.credentialsLoader = partitioning.enabled()
+                ? userRepository::findCredentialsByEmailKey
+                : userRepository::findCredentialsByEmail;
+        this.passwordHashingService = passwordHashingService;
+        this.attemptWriter = attemptWriter;
+        this.properties = properties;
+        this.accountFailures = new StripedSlidingWindow(properties.stripes(), properties.accountWindow());
+        this.ipFailures = new StripedSlidingWindow(properties.stripes(), properties.ipWindow());
+        this.lockouts = Caffeine.newBuilder()
+                .maximumSize(properties.stripes())
+                .expireAfterWrite(properties.lockoutDuration())
+                .build();
+        this.dummyHash = passwordEncoder.encode(UUID.randomUUID().toString());
+    }
+
+    /**
+     * @throws HashingQueueFullException if the password cannot be checked right now
+     */
+    public CompletableFuture<Result> login(String email, String password, String clientIp) {
+        Instant now = Instant.now();
+        if (ipFailures.estimate(clientIp) >= properties.maxIpFailures()) {
+            return CompletableFuture.completedFuture(
+                    new Result(Outcome.TOO_MANY_ATTEMPTS, null, properties.ipWindow()));
+        }
+        String accountKey = email.toLowerCase(Locale.ROOT);
+        Instant lockedUntil = lockouts.getIfPresent(accountKey);
+        if (lockedUntil != null && lockedUntil.isAfter(now)) {
+            return CompletableFuture.completedFuture(locked(lockedUntil, now));
+        }
+        Optional<UserCredentials> credentials = credentialsLoader.apply(email);
+        Instant storedLockout = credentials.map(UserCredentials::lockoutUntil).orElse(null);
+        if (storedLockout != null && storedLockout.isAfter(now)) {
+            lockouts.put(accountKey, storedLockout);
+            return CompletableFuture.completedFuture(locked(storedLockout, now));
+        }
+        String hash = credentials.map(UserCredentials::passwordHash).orElse(dummyHash);
+        return passwordHashingService.matches(password, hash).thenApply(matched -> {
+            if (matched && credentials.isPresent()) {
+                return succeeded(accountKey, credentials.get());
+            }
+            ipFailures.increment(clientIp);
+            long failures = accountFailures.increment(accountKey);
+            credentials.ifPresent(user -> {
+                Instant lockout = null;
+                if (failures >= properties.maxAccountFailures()) {
+                    lockout = Instant.now().plus(properties.lockoutDuration());
+                    lockouts.put(accountKey, lockout);
+                }
+                attemptWriter.recordFailure(user.id(), lockout);
+            });
+            return Result.of(Outcome.INVALID_CREDENTIALS);
+        });
+    }
+
+    private Result succeeded(String accountKey, UserCredentials user) {
+        accountFailures.clear(accountKey);
+        lockouts.invalidate(accountKey);
+        if (user.failedLoginAttempts() > 0 || user.lockoutUntil() != null) {
+            attemptWriter.recordSuccess(user.id());
+        }
+        return new Result(Outcome.SUCCESS, user.id(), null);
+    }
+
+    private static Result locked(Instant until, Instant now) {
+        return new Result(Outcome.ACCOUNT_LOCKED, null, Duration.between(now, until));
+    }
+}
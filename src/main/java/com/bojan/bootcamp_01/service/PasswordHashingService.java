@@ -0,0 +1,95 @@
+package com.bojan.bootcamp_01.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.bojan.bootcamp_01.config.PasswordHashingProperties;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Runs password hashing on a dedicated, bounded pool so that CPU-heavy encodes never
+ * occupy servlet threads. When the queue is full, callers get a
+ * {@link HashingQueueFullException} immediately instead of waiting.
+ */
+@Service
+public class PasswordHashingService implements DisposableBean {
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Timer hashTimer;
+    private final Timer verifyTimer;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder, PasswordHashingProperties properties,
+            MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(properties.threads(), properties.threads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.queueCapacity()), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.hashTimer = Timer.builder("users.password.hash")
+                .description("Time spent encoding a password")
+                .tag("algorithm", properties.algorithm())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("users.password.verify")
+                .description("Time spent checking a password against its hash")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("users.password.hash.queue", executor, e -> e.getQueue().size())
+                .description("Password hashing requests waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("users.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing threads currently encoding")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws HashingQueueFullException if the pool and its queue are saturated
+     */
+    public CompletableFuture<String> encode(String rawPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> hashTimer.record(() -> passwordEncoder.encode(rawPassword)),
+                    executor);
+        } catch (RejectedExecutionException e) {
+            throw new HashingQueueFullException();
+        }
+    }
+
+    /**
+     * @throws HashingQueueFullException if the pool and its queue are saturated
+     */
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        try {
+            return CompletableFuture.supplyAsync(
+                    () -> verifyTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword)), executor);
+        } catch (RejectedExecutionException e) {
+            throw new HashingQueueFullException();
+        }
+    }
+
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int queueCapacity() {
+        return executor.getQueue().size() + executor.getQueue().remainingCapacity();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
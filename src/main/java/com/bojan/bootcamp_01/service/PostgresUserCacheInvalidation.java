@@ -0,0 +1,118 @@
+package com.bojan.bootcamp_01.service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.bojan.bootcamp_01.config.UserCacheProperties;
+
+/**
+ * Cross-node invalidation for {@link UserCache} over Postgres LISTEN/NOTIFY.
+ * <p>
+ * {@link #publish(UUID)} issues {@code pg_notify} on the caller's transaction, so the
+ * notification is only delivered if that transaction commits. A background thread holds
+ * one dedicated connection (outside the Hikari pool) and evicts ids as they arrive. After
+ * a reconnect the whole cache is cleared, since notifications sent meanwhile are lost.
+ */
+public class PostgresUserCacheInvalidation implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(PostgresUserCacheInvalidation.class);
+    private static final int POLL_TIMEOUT_MS = 1000;
+
+    private final UserCache userCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final String channel;
+    private volatile boolean running;
+    private Thread listener;
+
+    public PostgresUserCacheInvalidation(UserCache userCache, JdbcTemplate jdbcTemplate,
+            DataSourceProperties dataSourceProperties, UserCacheProperties properties) {
+        if (!properties.channel().matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid NOTIFY channel: " + properties.channel());
+        }
+        this.userCache = userCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.channel = properties.channel();
+    }
+
+    public void publish(UUID id) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, channel, id.toString());
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listener = new Thread(this::listen, "user-cache-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (reconnecting) {
+                    userCache.evictAll();
+                }
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        evict(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("User cache listener disconnected, retrying: {}", e.getMessage());
+                reconnecting = true;
+                try {
+                    Thread.sleep(POLL_TIMEOUT_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void evict(String payload) {
+        try {
+            userCache.evict(UUID.fromString(payload));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed user cache notification: {}", payload);
+        }
+    }
+}
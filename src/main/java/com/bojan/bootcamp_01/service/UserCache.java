@@ -0,0 +1,148 @@
+package com.bojan.bootcamp_01.service;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.bojan.bootcamp_01.config.ReadReplicaRouter;
+import com.bojan.bootcamp_01.config.UserCacheProperties;
+import com.bojan.bootcamp_01.config.UserPartitioningProperties;
+import com.bojan.bootcamp_01.dto.UserView;
+import com.bojan.bootcamp_01.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Read-through cache for user lookups by id, username and email. Entries are immutable
+ * {@link UserView} projections, safe to share across request threads.
+ * <p>
+ * Users are stored once, by id. Username and email map to an id; on a hit the cached
+ * user is checked against the requested value, so evicting by id is enough to
+ * invalidate all three keys after a write. Evictions are passed on to
+ * {@link UserSecondLevelCache} when Hibernate's second-level cache is enabled.
+ * <p>
+ * Misses are read-only and may be served by a replica. A user read while the replica
+ * reports lag is returned but not cached, so a lagging copy cannot outlive the eviction
+ * that followed a write until the entry expires.
+ */
+@Service
+public class UserCache {
+    private final UserRepository userRepository;
+    private final Function<String, Optional<UserView>> usernameLoader;
+    private final Function<String, Optional<UserView>> emailLoader;
+    private final Cache<UUID, UserView> byId;
+    private final Cache<String, UUID> idByUsername;
+    private final Cache<String, UUID> idByEmail;
+    private final ObjectProvider<UserSecondLevelCache> secondLevelCache;
+    private final ObjectProvider<ReadReplicaRouter> replicaRouter;
+
+    public UserCache(UserRepository userRepository, UserCacheProperties properties,
+            UserPartitioningProperties partitioning, MeterRegistry meterRegistry,
+            ObjectProvider<UserSecondLevelCache> secondLevelCache, ObjectProvider<ReadReplicaRouter> replicaRouter) {
+        this.userRepository = userRepository;
+        this.secondLevelCache = secondLevelCache;
+        this.replicaRouter = replicaRouter;
+        this.usernameLoader = partitioning.enabled()
+                ? userRepository::findViewByUsernameKey
+                : userRepository::findViewByUsername;
+        this.emailLoader = partitioning.enabled()
+                ? userRepository::findViewByEmailKey
+                : userRepository::findViewByEmail;
+        this.byId = newCache(properties);
+        this.idByUsername = newCache(properties);
+        this.idByEmail = newCache(properties);
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, idByUsername, "users.byUsername");
+        CaffeineCacheMetrics.monitor(meterRegistry, idByEmail, "users.byEmail");
+    }
+
+    private static <K, V> Cache<K, V> newCache(UserCacheProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+    }
+
+    public Optional<UserView> findById(UUID id) {
+        UserView cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return load(() -> userRepository.findViewById(id));
+    }
+
+    public Optional<UserView> findByUsername(String username) {
+        return findByAlias(idByUsername, username, UserView::username, usernameLoader);
+    }
+
+    public Optional<UserView> findByEmail(String email) {
+        return findByAlias(idByEmail, email, UserView::email, emailLoader);
+    }
+
+    private Optional<UserView> findByAlias(Cache<String, UUID> aliases, String value,
+            Function<UserView, String> attribute, Function<String, Optional<UserView>> loader) {
+        UUID id = aliases.getIfPresent(value);
+        if (id != null) {
+            UserView cached = byId.getIfPresent(id);
+            if (cached != null && value.equals(attribute.apply(cached))) {
+                return Optional.of(cached);
+            }
+            aliases.invalidate(value);
+        }
+        return load(() -> loader.apply(value));
+    }
+
+    private Optional<UserView> load(Supplier<Optional<UserView>> query) {
+        Optional<UserView> loaded = query.get();
+        ReadReplicaRouter router = replicaRouter.getIfAvailable();
+        if (router == null || !router.mayReadStale()) {
+            loaded.ifPresent(this::put);
+        }
+        return loaded;
+    }
+
+    private UserView put(UserView user) {
+        byId.put(user.id(), user);
+        idByUsername.put(user.username(), user.id());
+        idByEmail.put(user.email(), user.id());
+        return user;
+    }
+
+    public void evict(UUID id) {
+        byId.invalidate(id);
+        secondLevelCache.ifAvailable(cache -> cache.evict(id));
+    }
+
+    public void evictAll() {
+        byId.invalidateAll();
+        idByUsername.invalidateAll();
+        idByEmail.invalidateAll();
+        secondLevelCache.ifAvailable(UserSecondLevelCache::evictAll);
+    }
+
+    /**
+     * Evicts now and again once the surrounding transaction commits, so a concurrent
+     * reader cannot re-populate the entry with the pre-commit row.
+     */
+    public void evictAfterCommit(UUID id) {
+        evict(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(id);
+                }
+            });
+        }
+    }
+}
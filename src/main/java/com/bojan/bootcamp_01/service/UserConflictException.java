@@ -0,0 +1,14 @@
+package com.bojan.bootcamp_01.service;
+
+/**
+ * Thrown when a write would give a user the username or email of another user.
+ */
+public class UserConflictException extends RuntimeException {
+    public UserConflictException(String message) {
+        super(message);
+    }
+
+    public UserConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,205 @@
+package com.bojan.bootcamp_01.service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.bojan.bootcamp_01.config.UserEventsProperties;
+import com.bojan.bootcamp_01.dto.UserEvent;
+import com.bojan.bootcamp_01.dto.UserEventPage;
+
+/**
+ * Incremental reads of the published user event stream, by offset.
+ * <p>
+ * {@link #poll} parks callers that are already at the end of the stream instead of
+ * holding a thread or a connection per waiter. One background check per
+ * {@code poll-interval} reads the highest published offset and completes every waiter
+ * behind it; the relay on this node also triggers a check right after each batch commits,
+ * so waiters there see new events immediately. Waiters on other nodes see them within one
+ * interval. Completed waiters and {@link #subscribe subscriptions} run on virtual threads,
+ * so a slow consumer never holds up the check.
+ */
+public class UserEventFeed implements SmartLifecycle {
+    /**
+     * Receives pages for {@link #subscribe}. An empty page means a wait expired with
+     * nothing new, which is a good moment for a keep-alive.
+     */
+    public interface Subscriber {
+
+        /**
+         * @return false to end the subscription
+         */
+        boolean onPage(UserEventPage page);
+
+        /**
+         * Called once when the subscription ends abnormally, e.g. with
+         * {@link UserEventsExpiredException}.
+         */
+        void onError(Throwable error);
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(UserEventFeed.class);
+    private static final String READ_SQL = "SELECT stream_offset, user_id, event_type, created_at, payload::text "
+            + "FROM user_events WHERE stream_offset > ? ORDER BY stream_offset LIMIT ?";
+    private static final String HEAD_SQL = "SELECT COALESCE(MAX(stream_offset), 0) FROM user_events";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserEventsProperties properties;
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private ScheduledExecutorService checker;
+    private ExecutorService delivery;
+    private volatile boolean running;
+
+    public UserEventFeed(JdbcTemplate jdbcTemplate, UserEventsProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    public UserEventsProperties properties() {
+        return properties;
+    }
+
+    /**
+     * @return the offset of the newest published event, 0 if there is none
+     */
+    public long head() {
+        return jdbcTemplate.queryForObject(HEAD_SQL, Long.class);
+    }
+
+    /**
+     * @throws UserEventsExpiredException if events right after {@code after} were purged
+     */
+    public UserEventPage read(long after, int limit) {
+        List<UserEvent> events = jdbcTemplate.query(READ_SQL, UserEventRelay::mapEvent, after, limit);
+        if (events.isEmpty()) {
+            return new UserEventPage(events, after);
+        }
+        // offsets are dense, so a hole at the start can only come from the retention purge
+        if (events.get(0).offset() != after + 1) {
+            throw new UserEventsExpiredException("Events after offset " + after + " are no longer retained");
+        }
+        return new UserEventPage(events, events.get(events.size() - 1).offset());
+    }
+
+    /**
+     * Like {@link #read}, but waits up to {@code wait} for events when there are none yet.
+     * Completes with an empty page on timeout, or exceptionally with
+     * {@link UserEventsExpiredException}.
+     */
+    public CompletableFuture<UserEventPage> poll(long after, int limit, Duration wait) {
+        UserEventPage page;
+        try {
+            page = read(after, limit);
+        } catch (UserEventsExpiredException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (!page.events().isEmpty() || wait.isZero() || !running) {
+            return CompletableFuture.completedFuture(page);
+        }
+        Waiter waiter = new Waiter(after, limit, System.nanoTime() + wait.toNanos(), new CompletableFuture<>());
+        waiters.add(waiter);
+        return waiter.result();
+    }
+
+    /**
+     * Streams pages from {@code after} onwards to {@code subscriber} until it declines
+     * more, fails, or the feed stops. Returns immediately.
+     */
+    public void subscribe(long after, Subscriber subscriber) {
+        delivery.execute(() -> {
+            long next = after;
+            try {
+                while (running) {
+                    UserEventPage page = poll(next, properties.maxLimit(), properties.maxWait()).join();
+                    if (!subscriber.onPage(page)) {
+                        return;
+                    }
+                    next = page.next();
+                }
+            } catch (CompletionException e) {
+                subscriber.onError(e.getCause());
+            } catch (RuntimeException e) {
+                subscriber.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Checks waiters now instead of at the next interval.
+     */
+    public void signal() {
+        if (running) {
+            checker.execute(this::check);
+        }
+    }
+
+    void check() {
+        if (waiters.isEmpty()) {
+            return;
+        }
+        long head;
+        try {
+            head = head();
+        } catch (DataAccessException e) {
+            log.warn("Could not read the user event head: {}", e.getMessage());
+            return;
+        }
+        long now = System.nanoTime();
+        for (Iterator<Waiter> it = waiters.iterator(); it.hasNext();) {
+            Waiter waiter = it.next();
+            if (head > waiter.after()) {
+                it.remove();
+                waiter.result().completeAsync(() -> read(waiter.after(), waiter.limit()), delivery);
+            } else if (now - waiter.deadlineNanos() >= 0) {
+                it.remove();
+                waiter.result().complete(new UserEventPage(List.of(), waiter.after()));
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        delivery = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("user-event-delivery-", 0).factory());
+        checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-event-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.pollInterval().toMillis();
+        checker.scheduleWithFixedDelay(this::check, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        checker.shutdown();
+        Waiter waiter;
+        while ((waiter = waiters.poll()) != null) {
+            waiter.result().complete(new UserEventPage(List.of(), waiter.after()));
+        }
+        delivery.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private record Waiter(long after, int limit, long deadlineNanos, CompletableFuture<UserEventPage> result) {
+    }
+}
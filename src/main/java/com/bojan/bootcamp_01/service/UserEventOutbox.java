@@ -0,0 +1,103 @@
+package com.bojan.bootcamp_01.service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bojan.bootcamp_01.dto.UserView;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+/**
+ * Writes user change events to the {@code user_events} outbox. Every method joins the
+ * caller's transaction (and refuses to run without one), so an event exists exactly when
+ * the change it describes committed. {@link UserEventRelay} publishes them afterwards.
+ */
+@Service
+public class UserEventOutbox {
+    public enum Type {
+        CREATED, UPDATED, METADATA_UPDATED, DELETED
+    }
+
+    private static final String INSERT_SQL = "INSERT INTO user_events (user_id, event_type, payload) "
+            + "VALUES (?, ?, ?::jsonb)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter viewWriter;
+
+    public UserEventOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.viewWriter = objectMapper.writerFor(UserView.class)
+                .with(new SimpleFilterProvider().addFilter(UserView.FILTER, SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Type type, UserView user) {
+        jdbcTemplate.update(INSERT_SQL, user.id(), type.name(), json(user));
+    }
+
+    /**
+     * One batch for many new users, e.g. a chunk of a bulk import.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(List<UserView> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, users.stream()
+                .map(user -> new Object[] { user.id(), Type.CREATED.name(), json(user) })
+                .toList());
+    }
+
+    /**
+     * @param metadata the resulting document as rendered by PostgreSQL
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordMetadata(UUID id, long version, String metadata) {
+        jdbcTemplate.update(INSERT_SQL, id, Type.METADATA_UPDATED.name(), objectMapper.createObjectNode()
+                .put("id", id.toString())
+                .put("version", version)
+                .putRawValue("metadata", new RawValue(metadata))
+                .toString());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Collection<UUID> ids, Instant deletedAt) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, ids.stream()
+                .map(id -> new Object[] { id, Type.DELETED.name(),
+                        json(Map.of("id", id, "deletedAt", deletedAt)) })
+                .toList());
+    }
+
+    private String json(UserView user) {
+        try {
+            return viewWriter.writeValueAsString(user);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize user " + user.id(), e);
+        }
+    }
+
+    private String json(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize event payload", e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.bojan.bootcamp_01.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bojan.bootcamp_01.config.UserEventsProperties;
+import com.bojan.bootcamp_01.dto.UserEvent;
+
+/**
+ * Publishes outbox rows from {@code user_events} to the {@link UserEventSink} in batches.
+ * <p>
+ * Each batch runs in one transaction under a cluster-wide advisory lock. It numbers the
+ * oldest unpublished rows consecutively after the highest offset so far, hands them to
+ * the sink and commits. Relays therefore never interleave, and offsets are dense and
+ * follow commit order even though outbox ids are handed out before their transactions
+ * commit: a row that commits late simply gets a later offset. If the sink throws, the
+ * batch rolls back and is retried with the same offsets.
+ * <p>
+ * Published events are kept for {@code retention}, except for the newest, which anchors
+ * the next offset. Purging runs at most once a minute.
+ */
+public class UserEventRelay implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(UserEventRelay.class);
+    private static final long LOCK_KEY = 0x7573_6572_6576_7473L;
+    private static final Duration PURGE_INTERVAL = Duration.ofMinutes(1);
+    private static final String ASSIGN_SQL = "WITH batch AS (SELECT id FROM user_events "
+            + "WHERE stream_offset IS NULL ORDER BY id LIMIT ? FOR UPDATE), "
+            + "base AS (SELECT COALESCE(MAX(stream_offset), 0) AS last FROM user_events) "
+            + "UPDATE user_events e SET stream_offset = base.last + b.rn "
+            + "FROM (SELECT id, row_number() OVER (ORDER BY id) AS rn FROM batch) b, base "
+            + "WHERE e.id = b.id "
+            + "RETURNING e.stream_offset, e.user_id, e.event_type, e.created_at, e.payload::text";
+    private static final String PURGE_SQL = "DELETE FROM user_events WHERE id IN (SELECT id FROM user_events "
+            + "WHERE created_at < ? AND stream_offset < (SELECT MAX(stream_offset) FROM user_events) LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserEventSink sink;
+    private final UserEventFeed feed;
+    private final UserEventsProperties properties;
+    private Instant nextPurge = Instant.EPOCH;
+    private ScheduledExecutorService relay;
+    private volatile boolean running;
+
+    public UserEventRelay(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            UserEventSink sink, UserEventFeed feed, UserEventsProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sink = sink;
+        this.feed = feed;
+        this.properties = properties;
+    }
+
+    /**
+     * Publishes batches until the outbox is drained.
+     */
+    void run() {
+        try {
+            int published;
+            do {
+                published = publishBatch();
+                if (published > 0) {
+                    feed.signal();
+                }
+            } while (published == properties.batchSize());
+            if (Instant.now().isAfter(nextPurge)) {
+                purge();
+                nextPurge = Instant.now().plus(PURGE_INTERVAL);
+            }
+        } catch (RuntimeException e) {
+            log.warn("User event relay failed, retrying in {}: {}", properties.relayInterval(), e.getMessage());
+        }
+    }
+
+    /**
+     * @return events published, or 0 if another relay holds the lock
+     */
+    int publishBatch() {
+        return transactionTemplate.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class,
+                    LOCK_KEY);
+            if (!Boolean.TRUE.equals(locked)) {
+                return 0;
+            }
+            List<UserEvent> events = new ArrayList<>(jdbcTemplate.query(ASSIGN_SQL,
+                    UserEventRelay::mapEvent, properties.batchSize()));
+            if (events.isEmpty()) {
+                return 0;
+            }
+            events.sort(Comparator.comparingLong(UserEvent::offset));
+            sink.publish(events);
+            return events.size();
+        });
+    }
+
+    private void purge() {
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(properties.retention()));
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_SQL, cutoff, properties.batchSize());
+        } while (deleted == properties.batchSize() && running);
+    }
+
+    static UserEvent mapEvent(ResultSet rs, int rowNum) throws SQLException {
+        return new UserEvent(rs.getLong(1), rs.getObject(2, UUID.class), rs.getString(3),
+                rs.getTimestamp(4).toInstant(), rs.getString(5));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        relay = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-event-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.relayInterval().toMillis();
+        relay.scheduleWithFixedDelay(this::run, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        relay.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
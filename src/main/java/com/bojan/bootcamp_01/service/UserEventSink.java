@@ -0,0 +1,18 @@
+package com.bojan.bootcamp_01.service;
+
+import java.util.List;
+
+import com.bojan.bootcamp_01.dto.UserEvent;
+
+/**
+ * Destination for published user events, e.g. a message broker. Declaring a bean of this
+ * type replaces the default {@link InMemoryUserEventSink}.
+ * <p>
+ * {@link #publish} runs inside the relay transaction that assigns the offsets; throwing
+ * rolls the batch back and it is retried on the next run, so delivery is at least once
+ * and a sink should be idempotent on {@link UserEvent#offset()}.
+ */
+public interface UserEventSink {
+
+    void publish(List<UserEvent> events);
+}
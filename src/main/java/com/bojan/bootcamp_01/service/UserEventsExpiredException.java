@@ -0,0 +1,11 @@
+package com.bojan.bootcamp_01.service;
+
+/**
+ * Thrown when events after the requested offset have already been purged, so the
+ * consumer has a gap and must resynchronize from a full snapshot.
+ */
+public class UserEventsExpiredException extends RuntimeException {
+    public UserEventsExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,64 @@
+package com.bojan.bootcamp_01.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bojan.bootcamp_01.dto.UserView;
+import com.bojan.bootcamp_01.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+/**
+ * Writes every active user as newline-delimited JSON. Rows are pulled as
+ * {@link UserView} projections through a fetch-size cursor, so nothing accumulates
+ * in the persistence context and heap use stays flat regardless of table size.
+ */
+@Service
+public class UserExportService {
+    private static final int FLUSH_EVERY = 500;
+
+    private final UserRepository userRepository;
+    private final ObjectWriter writer;
+    private final TransactionTemplate readOnlyTx;
+
+    public UserExportService(UserRepository userRepository, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.writer = objectMapper.writerFor(UserView.class)
+                .with(new SimpleFilterProvider().addFilter(UserView.FILTER, SimpleBeanPropertyFilter.serializeAll()))
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    public void writeActiveUsers(OutputStream out) {
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<UserView> users = userRepository.streamActiveViews();
+                    JsonGenerator generator = writer.createGenerator(out)) {
+                // the servlet container owns the response stream
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                int written = 0;
+                for (UserView user : (Iterable<UserView>) users::iterator) {
+                    writer.writeValue(generator, user);
+                    generator.writeRaw('\n');
+                    if (++written % FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                }
+                generator.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,315 @@
+package com.bojan.bootcamp_01.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bojan.bootcamp_01.config.UserImportConfig;
+import com.bojan.bootcamp_01.config.UserImportProperties;
+import com.bojan.bootcamp_01.dto.UserImportReport;
+import com.bojan.bootcamp_01.dto.UserRegistrationDto;
+import com.bojan.bootcamp_01.dto.UserView;
+import com.bojan.bootcamp_01.util.UuidV7;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Streams CSV or NDJSON user rows into the {@code users} table.
+ * <p>
+ * Rows are read in chunks of {@code app.users.import.batch-size}. Each chunk is validated
+ * against the {@link UserRegistrationDto} constraints, hashed in parallel on a dedicated
+ * fork-join pool, and written as one JDBC batch in its own transaction. Ids are UUIDv7
+ * generated client-side, so Hibernate is not involved and nothing is read back. The
+ * chunk's CREATED events go to {@link UserEventOutbox} in the same transaction. Imported
+ * users start unverified with a token from {@link EmailVerificationTokens}, like registered
+ * ones; tokens for the rows actually inserted are sent once the chunk commits.
+ * {@code ON CONFLICT DO NOTHING} turns duplicates into per-row errors instead of
+ * aborting the batch.
+ * <p>
+ * CSV follows RFC 4180 within a single line: a field may be wrapped in double quotes to
+ * carry commas, and a quote inside a quoted field is written twice. Quoted fields cannot
+ * span lines; such a row, a stray quote in an unquoted field, or a row with the wrong
+ * number of fields is rejected on its own.
+ */
+@Service
+public class UserImportService {
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private static final String INSERT_SQL = "INSERT INTO users "
+            + "(id, username, email, password_hash, email_verified, email_verification_token, "
+            + "email_verification_sent_at, failed_login_attempts, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, false, ?, ?, 0, ?, ?) ON CONFLICT DO NOTHING";
+    private static final List<String> REQUIRED_COLUMNS = List.of("username", "email", "password");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ForkJoinPool hashPool;
+    private final UserImportProperties properties;
+    private final UserEventOutbox outbox;
+    private final EmailVerificationTokens verificationTokens;
+
+    public UserImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            PasswordEncoder passwordEncoder, Validator validator, ObjectMapper objectMapper,
+            @Qualifier(UserImportConfig.IMPORT_HASH_POOL) ForkJoinPool hashPool, UserImportProperties properties,
+            UserEventOutbox outbox, EmailVerificationTokens verificationTokens) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.hashPool = hashPool;
+        this.properties = properties;
+        this.outbox = outbox;
+        this.verificationTokens = verificationTokens;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a CSV document lacks a usable header row
+     */
+    public UserImportReport importUsers(InputStream body, Format format) throws IOException {
+        Tally tally = new Tally(properties.maxReportedErrors());
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        List<String> columns = null;
+        List<Row> chunk = new ArrayList<>(properties.batchSize());
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && columns == null) {
+                columns = parseHeader(line);
+                continue;
+            }
+            tally.received++;
+            Row row = format == Format.CSV
+                    ? parseCsv(lineNumber, line, columns, tally)
+                    : parseJson(lineNumber, line, tally);
+            if (row != null && isValid(row, tally)) {
+                chunk.add(row);
+            }
+            if (chunk.size() == properties.batchSize()) {
+                write(chunk, tally);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            write(chunk, tally);
+        }
+        return new UserImportReport(tally.received, tally.created, tally.failed, tally.errors);
+    }
+
+    private static List<String> parseHeader(String line) {
+        List<String> columns;
+        try {
+            columns = splitCsv(line).stream()
+                    .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                    .toList();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed CSV header: " + e.getMessage(), e);
+        }
+        if (!columns.containsAll(REQUIRED_COLUMNS)) {
+            throw new IllegalArgumentException("CSV header must contain " + String.join(",", REQUIRED_COLUMNS));
+        }
+        return columns;
+    }
+
+    private static Row parseCsv(long lineNumber, String line, List<String> columns, Tally tally) {
+        List<String> values;
+        try {
+            values = splitCsv(line);
+        } catch (IllegalArgumentException e) {
+            tally.reject(lineNumber, "malformed CSV: " + e.getMessage());
+            return null;
+        }
+        if (values.size() != columns.size()) {
+            tally.reject(lineNumber, "expected " + columns.size() + " columns but found " + values.size());
+            return null;
+        }
+        UserRegistrationDto dto = new UserRegistrationDto();
+        dto.setUsername(values.get(columns.indexOf("username")).trim());
+        dto.setEmail(values.get(columns.indexOf("email")).trim());
+        dto.setPassword(values.get(columns.indexOf("password")));
+        return new Row(lineNumber, dto);
+    }
+
+    /**
+     * Splits one CSV record into its fields, unquoting quoted ones.
+     *
+     * @throws IllegalArgumentException on an unterminated quoted field, text after a closing
+     *                                  quote, or a quote inside an unquoted field
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int i = 0;
+        while (true) {
+            if (i < line.length() && line.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i == line.length()) {
+                        throw new IllegalArgumentException("unterminated quoted field " + (fields.size() + 1));
+                    }
+                    char c = line.charAt(i++);
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                if (i < line.length() && line.charAt(i) != ',') {
+                    throw new IllegalArgumentException("unexpected text after quoted field " + (fields.size() + 1));
+                }
+            } else {
+                while (i < line.length() && line.charAt(i) != ',') {
+                    char c = line.charAt(i++);
+                    if (c == '"') {
+                        throw new IllegalArgumentException("quote inside unquoted field " + (fields.size() + 1));
+                    }
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            field.setLength(0);
+            if (i == line.length()) {
+                return fields;
+            }
+            i++; // the comma
+        }
+    }
+
+    private Row parseJson(long lineNumber, String line, Tally tally) {
+        try {
+            return new Row(lineNumber, objectMapper.readValue(line, UserRegistrationDto.class));
+        } catch (JsonProcessingException e) {
+            tally.reject(lineNumber, "malformed JSON: " + e.getOriginalMessage());
+            return null;
+        }
+    }
+
+    private boolean isValid(Row row, Tally tally) {
+        Set<ConstraintViolation<UserRegistrationDto>> violations = validator.validate(row.dto());
+        if (violations.isEmpty()) {
+            return true;
+        }
+        tally.reject(row.line(), violations.stream()
+                .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; ")));
+        return false;
+    }
+
+    private void write(List<Row> chunk, Tally tally) {
+        List<String> hashes = hashPool.submit(() -> chunk.parallelStream()
+                .map(row -> passwordEncoder.encode(row.dto().getPassword()))
+                .toList()).join();
+        Instant created = Instant.now();
+        Timestamp now = Timestamp.from(created);
+        List<UUID> ids = chunk.stream().map(row -> UuidV7.next()).toList();
+        List<String> tokens = chunk.stream().map(row -> verificationTokens.newToken()).toList();
+        int[] counts;
+        try {
+            counts = transactionTemplate.execute(status -> {
+                int[] inserted = jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Row row = chunk.get(i);
+                        ps.setObject(1, ids.get(i), Types.OTHER);
+                        ps.setString(2, row.dto().getUsername());
+                        ps.setString(3, row.dto().getEmail());
+                        ps.setString(4, hashes.get(i));
+                        ps.setString(5, EmailVerificationTokens.hash(tokens.get(i)));
+                        ps.setTimestamp(6, now);
+                        ps.setTimestamp(7, now);
+                        ps.setTimestamp(8, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return chunk.size();
+                    }
+                });
+                List<UserView> events = new ArrayList<>();
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (inserted[i] != 0) {
+                        Row row = chunk.get(i);
+                        events.add(new UserView(ids.get(i), row.dto().getUsername(), row.dto().getEmail(), false,
+                                created, created, null, 0));
+                        verificationTokens.sendAfterCommit(ids.get(i), row.dto().getEmail(), tokens.get(i));
+                    }
+                }
+                outbox.recordCreated(events);
+                return inserted;
+            });
+        } catch (DataAccessException e) {
+            for (Row row : chunk) {
+                tally.reject(row.line(), "batch rejected: " + e.getMostSpecificCause().getMessage());
+            }
+            return;
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            if (counts[i] == 0) {
+                tally.reject(chunk.get(i).line(), "username or email already exists");
+            } else {
+                tally.created++;
+            }
+        }
+    }
+
+    private record Row(long line, UserRegistrationDto dto) {
+    }
+
+    private static final class Tally {
+        private final int maxErrors;
+        private final List<UserImportReport.RowError> errors = new ArrayList<>();
+        private long received;
+        private long created;
+        private long failed;
+
+        Tally(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void reject(long line, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new UserImportReport.RowError(line, message));
+            }
+        }
+    }
+}
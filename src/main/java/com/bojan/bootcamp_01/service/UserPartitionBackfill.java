@@ -0,0 +1,69 @@
+package com.bojan.bootcamp_01.service;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bojan.bootcamp_01.config.UserPartitioningProperties;
+
+/**
+ * Online copy of {@code users} into the hash-partitioned {@code users_p}.
+ * <p>
+ * Rows are copied in id order, one keyset batch per short transaction. The batch takes
+ * {@code FOR KEY SHARE} locks, so a concurrent delete waits until the copy commits and
+ * the mirror trigger then removes the row from {@code users_p} as well; rows the mirror
+ * trigger already wrote are newer and kept ({@code ON CONFLICT DO NOTHING}). The last
+ * copied id is logged so an interrupted run can resume with
+ * {@code app.users.partitioning.backfill-from-id}.
+ */
+public class UserPartitionBackfill {
+    private static final Logger log = LoggerFactory.getLogger(UserPartitionBackfill.class);
+    private static final int LOG_EVERY = 100;
+    // users_p was created LIKE users, so both have the same columns in the same order
+    private static final String COPY_BATCH_SQL = "WITH batch AS ("
+            + "SELECT * FROM users WHERE id > ? ORDER BY id LIMIT ? FOR KEY SHARE), "
+            + "copied AS (INSERT INTO users_p SELECT * FROM batch ON CONFLICT (id) DO NOTHING) "
+            + "SELECT id FROM batch ORDER BY id DESC LIMIT 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserPartitioningProperties properties;
+
+    public UserPartitionBackfill(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            UserPartitioningProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    /**
+     * @return number of batches copied
+     */
+    public long run() throws InterruptedException {
+        UUID after = properties.backfillFromId();
+        long batches = 0;
+        while (true) {
+            UUID from = after;
+            List<UUID> last = transactionTemplate.execute(status -> {
+                jdbcTemplate.execute("SET LOCAL lock_timeout = '5s'");
+                return jdbcTemplate.queryForList(COPY_BATCH_SQL, UUID.class, from, properties.backfillBatchSize());
+            });
+            if (last == null || last.isEmpty()) {
+                break;
+            }
+            after = last.get(0);
+            if (++batches % LOG_EVERY == 0) {
+                log.info("Partition backfill copied {} batches, last id {}", batches, after);
+            }
+            Thread.sleep(properties.backfillPause().toMillis());
+        }
+        jdbcTemplate.execute("ANALYZE users_p");
+        log.info("Partition backfill finished after {} batches, last id {}", batches, after);
+        return batches;
+    }
+}
@@ -0,0 +1,87 @@
+package com.bojan.bootcamp_01.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bojan.bootcamp_01.config.UserPurgeProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Moves users soft-deleted longer than {@code app.users.purge.retention} ago from
+ * {@code users} to {@code users_archive}.
+ * <p>
+ * Each batch is one statement (select, delete and insert in a single CTE) in its own
+ * short transaction with a {@code lock_timeout}, followed by a pause, so row locks are
+ * held briefly and dead tuples accumulate at a pace autovacuum can follow. Batches lock
+ * their rows with {@code SKIP LOCKED}, which lets several nodes run the job at once.
+ */
+public class UserPurgeJob {
+    private static final Logger log = LoggerFactory.getLogger(UserPurgeJob.class);
+    // users_archive has the users columns plus archived_at, but not in the same order
+    // once columns are added to both tables, so they are listed explicitly
+    private static final String COLUMNS = "id, username, email, password_hash, email_verified, "
+            + "email_verification_token, email_verification_sent_at, failed_login_attempts, lockout_until, "
+            + "deleted_at, created_at, updated_at, metadata, version";
+    private static final String ARCHIVE_BATCH_SQL = "WITH batch AS ("
+            + "SELECT id FROM users WHERE deleted_at < ? ORDER BY deleted_at LIMIT ? FOR UPDATE SKIP LOCKED), "
+            + "moved AS (DELETE FROM users u USING batch WHERE u.id = batch.id RETURNING u.*) "
+            + "INSERT INTO users_archive (" + COLUMNS + ", archived_at) SELECT " + COLUMNS + ", now() FROM moved";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserPurgeProperties properties;
+    private final Counter archived;
+
+    public UserPurgeJob(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            UserPurgeProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.archived = Counter.builder("users.purge.archived")
+                .description("Soft-deleted users moved to users_archive")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.users.purge.cron:0 30 3 * * *}")
+    public void run() {
+        long moved = purge(Instant.now().minus(properties.retention()));
+        if (moved > 0) {
+            log.info("Archived {} users deleted more than {} ago", moved, properties.retention());
+        }
+    }
+
+    /**
+     * @return rows archived by this call
+     */
+    public long purge(Instant deletedBefore) {
+        Timestamp cutoff = Timestamp.from(deletedBefore);
+        long total = 0;
+        for (int batch = 0; batch < properties.maxBatches(); batch++) {
+            Integer moved = transactionTemplate.execute(status -> {
+                jdbcTemplate.execute("SET LOCAL lock_timeout = '2s'");
+                return jdbcTemplate.update(ARCHIVE_BATCH_SQL, cutoff, properties.batchSize());
+            });
+            total += moved;
+            archived.increment(moved);
+            if (moved < properties.batchSize()) {
+                break;
+            }
+            try {
+                Thread.sleep(properties.pause().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,165 @@
+package com.bojan.bootcamp_01.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bojan.bootcamp_01.config.UserSearchProperties;
+import com.bojan.bootcamp_01.dto.UserCursor;
+import com.bojan.bootcamp_01.dto.UserPage;
+import com.bojan.bootcamp_01.dto.UserView;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Prefix, substring and similarity search over active users' usernames and emails.
+ * <p>
+ * Matching is case-insensitive against {@code lower(username)} / {@code lower(email)},
+ * which the partial {@code gin_trgm_ops} indexes from changeSet 6 cover for all three
+ * modes. Prefix and contains results are keyset-paginated on {@code (created_at, id)};
+ * similarity results are ranked and limited to a single page.
+ * <p>
+ * Metadata search filters with {@code metadata @> ?::jsonb}, which the partial
+ * {@code jsonb_path_ops} GIN index from changeSet 13 answers without a table scan.
+ * Every query runs in a read-only transaction with {@code SET LOCAL statement_timeout},
+ * so a pathological pattern cannot hold a connection.
+ */
+@Service
+public class UserSearchService {
+    public enum Mode {
+        PREFIX, CONTAINS, SIMILAR
+    }
+
+    private static final String COLUMNS = "SELECT id, username, email, email_verified, created_at, updated_at, "
+            + "deleted_at, version FROM users ";
+    private static final String LIKE_FILTER = "WHERE deleted_at IS NULL "
+            + "AND (lower(username) LIKE ? ESCAPE '\\' OR lower(email) LIKE ? ESCAPE '\\') ";
+    private static final String CONTAINS_FILTER = "WHERE deleted_at IS NULL AND metadata @> ?::jsonb ";
+    private static final String AFTER_CURSOR = "AND (created_at, id) > (?, ?) ";
+    private static final String KEYSET_ORDER = "ORDER BY created_at, id LIMIT ?";
+    private static final String SIMILAR_SQL = COLUMNS
+            + "WHERE deleted_at IS NULL AND (lower(username) % ? OR lower(email) % ?) "
+            + "ORDER BY greatest(similarity(lower(username), ?), similarity(lower(email), ?)) DESC, id LIMIT ?";
+
+    private static final RowMapper<UserView> VIEW_MAPPER = UserSearchService::mapView;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final UserSearchProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public UserSearchService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            UserSearchProperties properties, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.properties = properties;
+    }
+
+    public int maxLimit() {
+        return properties.maxLimit();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the term is too short, the limit is out of range
+     *                                  or a cursor is combined with {@link Mode#SIMILAR}
+     */
+    public UserPage<UserView> search(String term, Mode mode, int limit, UserCursor after) {
+        String normalized = term == null ? "" : term.trim().toLowerCase();
+        if (normalized.length() < properties.minQueryLength()) {
+            throw new IllegalArgumentException("Search term must have at least " + properties.minQueryLength()
+                    + " characters");
+        }
+        checkLimit(limit);
+        if (mode == Mode.SIMILAR && after != null) {
+            throw new IllegalArgumentException("Similarity search returns a single page");
+        }
+        return readOnlyTx.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL statement_timeout = " + properties.timeout().toMillis());
+            if (mode == Mode.SIMILAR) {
+                List<UserView> rows = jdbcTemplate.query(SIMILAR_SQL, VIEW_MAPPER, normalized, normalized,
+                        normalized, normalized, limit);
+                return new UserPage<>(rows, null);
+            }
+            String pattern = mode == Mode.PREFIX ? escapeLike(normalized) + "%" : "%" + escapeLike(normalized) + "%";
+            return keysetPage(LIKE_FILTER, limit, after, pattern, pattern);
+        });
+    }
+
+    /**
+     * Active users whose metadata contains the given JSON object, e.g. {@code {"plan":"pro"}}.
+     *
+     * @throws IllegalArgumentException if {@code contains} is not a non-empty JSON object or
+     *                                  the limit is out of range
+     */
+    public UserPage<UserView> searchMetadata(String contains, int limit, UserCursor after) {
+        JsonNode filter;
+        try {
+            filter = objectMapper.readTree(contains == null ? "" : contains);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("contains must be a JSON object", e);
+        }
+        // {} is contained in every document and would turn the index lookup into a scan
+        if (filter == null || !filter.isObject() || filter.isEmpty()) {
+            throw new IllegalArgumentException("contains must be a non-empty JSON object");
+        }
+        checkLimit(limit);
+        return readOnlyTx.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL statement_timeout = " + properties.timeout().toMillis());
+            return keysetPage(CONTAINS_FILTER, limit, after, filter.toString());
+        });
+    }
+
+    private void checkLimit(int limit) {
+        if (limit < 1 || limit > properties.maxLimit()) {
+            throw new IllegalArgumentException("limit must be between 1 and " + properties.maxLimit());
+        }
+    }
+
+    /**
+     * Fetches one row past {@code limit} to learn whether another page exists.
+     */
+    private UserPage<UserView> keysetPage(String filter, int limit, UserCursor after, Object... filterArgs) {
+        List<Object> args = new ArrayList<>(List.of(filterArgs));
+        String sql = COLUMNS + filter + KEYSET_ORDER;
+        if (after != null) {
+            sql = COLUMNS + filter + AFTER_CURSOR + KEYSET_ORDER;
+            args.add(Timestamp.from(after.createdAt()));
+            args.add(after.id());
+        }
+        args.add(limit + 1);
+        List<UserView> rows = jdbcTemplate.query(sql, VIEW_MAPPER, args.toArray());
+        if (rows.size() <= limit) {
+            return new UserPage<>(rows, null);
+        }
+        List<UserView> items = new ArrayList<>(rows.subList(0, limit));
+        return new UserPage<>(items, UserCursor.of(items.get(limit - 1)).encode());
+    }
+
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    static UserView mapView(ResultSet rs, int rowNum) throws SQLException {
+        return new UserView(rs.getObject("id", UUID.class), rs.getString("username"),
+                rs.getString("email"), rs.getBoolean("email_verified"), instant(rs, "created_at"),
+                instant(rs, "updated_at"), instant(rs, "deleted_at"), rs.getLong("version"));
+    }
+
+    private static Instant instant(ResultSet rs, String column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+}
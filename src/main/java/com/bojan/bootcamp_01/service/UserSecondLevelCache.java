@@ -0,0 +1,40 @@
+package com.bojan.bootcamp_01.service;
+
+import java.util.UUID;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+
+import com.bojan.bootcamp_01.entity.User;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Keeps Hibernate's second-level cache in step with writes it cannot see. Most user
+ * writes are plain SQL through {@code JdbcTemplate} (soft deletes, metadata patches,
+ * email verification), so Hibernate never invalidates the cached entity, the natural-id
+ * mapping or the cached query results for them. {@link UserCache} calls this wherever it
+ * evicts, which covers local writes and evictions announced by other nodes.
+ * <p>
+ * Natural-id mappings and query results are not keyed by user id, so each eviction
+ * clears those regions entirely, as Hibernate itself does for any write to {@code users}.
+ */
+public class UserSecondLevelCache {
+    private final Cache cache;
+
+    public UserSecondLevelCache(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    public void evict(UUID id) {
+        cache.evictEntityData(User.class, id);
+        cache.evictNaturalIdData(User.class);
+        cache.evictDefaultQueryRegion();
+    }
+
+    public void evictAll() {
+        cache.evictEntityData(User.class);
+        cache.evictNaturalIdData(User.class);
+        cache.evictDefaultQueryRegion();
+    }
+}
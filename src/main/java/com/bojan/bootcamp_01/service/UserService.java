@@ -0,0 +1,297 @@
+package com.bojan.bootcamp_01.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bojan.bootcamp_01.config.UserPartitioningProperties;
+import com.bojan.bootcamp_01.dto.UserMetadata;
+import com.bojan.bootcamp_01.dto.UserView;
+import com.bojan.bootcamp_01.entity.User;
+import com.bojan.bootcamp_01.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Transactional write paths for users. Uniqueness is enforced by the database; a
+ * unique violation (SQLSTATE 23505) surfaces as {@link UserConflictException}.
+ * Every write evicts the user from {@link UserCache} once the transaction commits and
+ * records a change event in the same transaction through {@link UserEventOutbox}.
+ * New users get an email verification token from {@link EmailVerificationTokens}, and so
+ * does every email change, which also clears {@code email_verified}. The stored hash is
+ * replaced in the same UPDATE that changes the address, so a token only ever verifies the
+ * address it was sent to.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserService {
+    static final String UNIQUE_VIOLATION = "23505";
+    private static final String SOFT_DELETE_SQL = "UPDATE users SET deleted_at = ?, updated_at = ?, "
+            + "version = version + 1 WHERE id = ANY(?) AND deleted_at IS NULL RETURNING id";
+    private static final String SOFT_DELETE_VERSIONED_SQL = "UPDATE users SET deleted_at = ?, updated_at = ?, "
+            + "version = version + 1 WHERE id = ? AND deleted_at IS NULL AND version = ?";
+    // shallow RFC 7396 merge: the first parameter holds the non-null members, the second the keys patched to null
+    private static final String MERGE_METADATA_SQL = "UPDATE users SET "
+            + "metadata = (COALESCE(metadata, '{}'::jsonb) || ?::jsonb) - ?::text[], ";
+    private static final String SET_METADATA_SQL = "UPDATE users SET "
+            + "metadata = jsonb_set(COALESCE(metadata, '{}'::jsonb), ?::text[], ?::jsonb, true), ";
+    private static final String VERIFY_EMAIL_SQL = "UPDATE users SET email_verified = true, "
+            + "email_verification_token = NULL, email_verification_sent_at = NULL, updated_at = ?, "
+            + "version = version + 1 WHERE email_verification_token = ? AND email_verification_sent_at >= ? "
+            + "AND email_verified = false AND deleted_at IS NULL "
+            + "RETURNING id, username, email, email_verified, created_at, updated_at, deleted_at, version";
+    private static final String METADATA_UPDATE_TAIL = "updated_at = ?, version = version + 1 "
+            + "WHERE id = ? AND deleted_at IS NULL";
+
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final UserEventOutbox outbox;
+    private final EmailVerificationTokens verificationTokens;
+    private final JdbcTemplate jdbcTemplate;
+    private final UserPartitioningProperties partitioning;
+    private final ObjectProvider<PostgresUserCacheInvalidation> cacheInvalidation;
+
+    @Transactional
+    public User create(String username, String email, String passwordHash) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setPasswordHash(passwordHash);
+        String token = verificationTokens.issue(user);
+        User saved = flush(user);
+        outbox.record(UserEventOutbox.Type.CREATED, UserView.of(saved));
+        verificationTokens.sendAfterCommit(saved.getId(), saved.getEmail(), token);
+        return saved;
+    }
+
+    /**
+     * Marks the email of the user holding {@code token} as verified in one statement; the
+     * token is looked up by its hash and cleared, so it works only once.
+     *
+     * @return the verified user, or empty if the token is unknown, expired or already used
+     */
+    @Transactional
+    public Optional<UserView> verifyEmail(String token) {
+        List<UserView> verified = jdbcTemplate.query(VERIFY_EMAIL_SQL, UserSearchService::mapView,
+                Timestamp.from(Instant.now()), EmailVerificationTokens.hash(token),
+                Timestamp.from(verificationTokens.validSince()));
+        if (verified.isEmpty()) {
+            return Optional.empty();
+        }
+        UserView user = verified.get(0);
+        outbox.record(UserEventOutbox.Type.UPDATED, user);
+        invalidate(user.id());
+        return Optional.of(user);
+    }
+
+    /**
+     * Changes username and email in at most two statements: one SELECT that loads the
+     * target together with any user already holding the requested values, and the UPDATE,
+     * which is guarded by the {@code version} column. A new email address is unverified:
+     * the pending token is replaced and a fresh one is sent to the new address on commit.
+     *
+     * @param expectedVersion version the caller last saw, or null to skip the check
+     * @return the updated user, or empty if no user has the given id
+     * @throws UserConflictException        if another user owns the username or email
+     * @throws UserVersionMismatchException if the user changed since {@code expectedVersion}
+     *                                      or a concurrent update committed first
+     */
+    @Transactional
+    public Optional<User> updateIdentity(UUID id, Long expectedVersion, String username, String email) {
+        List<User> candidates = partitioning.enabled()
+                ? userRepository.findUpdateCandidatesByKey(id, username, email)
+                : userRepository.findUpdateCandidates(id, username, email);
+        User target = null;
+        for (User candidate : candidates) {
+            if (candidate.getId().equals(id)) {
+                target = candidate;
+            } else {
+                throw new UserConflictException("Username or email already in use");
+            }
+        }
+        if (target == null) {
+            return Optional.empty();
+        }
+        if (expectedVersion != null && target.getVersion() != expectedVersion) {
+            throw new UserVersionMismatchException("User " + id + " is at version " + target.getVersion());
+        }
+        String token = null;
+        if (!email.equals(target.getEmail())) {
+            target.setEmailVerified(false);
+            token = verificationTokens.issue(target);
+        }
+        target.setUsername(username);
+        target.setEmail(email);
+        User updated = flush(target);
+        outbox.record(UserEventOutbox.Type.UPDATED, UserView.of(updated));
+        if (token != null) {
+            verificationTokens.sendAfterCommit(id, email, token);
+        }
+        invalidate(id);
+        return Optional.of(updated);
+    }
+
+    /**
+     * @param expectedVersion version the caller last saw, or null to skip the check
+     * @return false if no active user has the given id
+     * @throws UserVersionMismatchException if the user changed since {@code expectedVersion}
+     */
+    @Transactional
+    public boolean softDelete(UUID id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return !softDeleteAll(List.of(id)).isEmpty();
+        }
+        Instant deletedAt = Instant.now();
+        Timestamp now = Timestamp.from(deletedAt);
+        if (jdbcTemplate.update(SOFT_DELETE_VERSIONED_SQL, now, now, id, expectedVersion) == 1) {
+            outbox.recordDeleted(List.of(id), deletedAt);
+            invalidate(id);
+            return true;
+        }
+        // only the failure path pays for telling "gone" from "changed"
+        if (isActive(id)) {
+            throw new UserVersionMismatchException("User " + id + " is no longer at version " + expectedVersion);
+        }
+        return false;
+    }
+
+    /**
+     * Merges {@code patch} into the stored metadata inside PostgreSQL, without loading the
+     * entity: members replace the stored ones, members set to {@code null} are removed.
+     * Nested objects are replaced, not merged.
+     *
+     * @param expectedVersion version the caller last saw, or null to skip the check
+     * @return the resulting metadata, or empty if no active user has the given id
+     * @throws UserVersionMismatchException if the user changed since {@code expectedVersion}
+     */
+    @Transactional
+    public Optional<UserMetadata> mergeMetadata(UUID id, Long expectedVersion, ObjectNode patch) {
+        ObjectNode additions = patch.objectNode();
+        List<String> removals = new ArrayList<>();
+        for (Map.Entry<String, JsonNode> member : patch.properties()) {
+            if (member.getValue().isNull()) {
+                removals.add(member.getKey());
+            } else {
+                additions.set(member.getKey(), member.getValue());
+            }
+        }
+        return updateMetadata(MERGE_METADATA_SQL, id, expectedVersion, additions.toString(),
+                removals.toArray(String[]::new));
+    }
+
+    /**
+     * Sets the value at {@code path} with {@code jsonb_set}. Only the last path element is
+     * created if missing; a path through a missing parent leaves the document unchanged.
+     *
+     * @param expectedVersion version the caller last saw, or null to skip the check
+     * @return the resulting metadata, or empty if no active user has the given id
+     * @throws UserVersionMismatchException if the user changed since {@code expectedVersion}
+     */
+    @Transactional
+    public Optional<UserMetadata> setMetadata(UUID id, Long expectedVersion, List<String> path, JsonNode value) {
+        return updateMetadata(SET_METADATA_SQL, id, expectedVersion, path.toArray(String[]::new), value.toString());
+    }
+
+    private Optional<UserMetadata> updateMetadata(String assignment, UUID id, Long expectedVersion, Object first,
+            Object second) {
+        String sql = assignment + METADATA_UPDATE_TAIL + (expectedVersion == null ? "" : " AND version = ?")
+                + " RETURNING metadata::text, version";
+        List<UserMetadata> updated = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            int index = 1;
+            for (Object value : new Object[] { first, second }) {
+                statement.setObject(index++, value instanceof String[] array
+                        ? connection.createArrayOf("text", array)
+                        : value);
+            }
+            statement.setTimestamp(index++, Timestamp.from(Instant.now()));
+            statement.setObject(index++, id);
+            if (expectedVersion != null) {
+                statement.setLong(index, expectedVersion);
+            }
+            return statement;
+        }, (rs, rowNum) -> new UserMetadata(rs.getString(1), rs.getLong(2)));
+        if (!updated.isEmpty()) {
+            outbox.recordMetadata(id, updated.get(0).version(), updated.get(0).json());
+            invalidate(id);
+            return Optional.of(updated.get(0));
+        }
+        if (expectedVersion != null && isActive(id)) {
+            throw new UserVersionMismatchException("User " + id + " is no longer at version " + expectedVersion);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Soft-deletes all given users in one {@code UPDATE ... WHERE id = ANY(?)}. Users that
+     * do not exist or are already deleted are skipped, so their {@code deleted_at} (and
+     * with it the purge deadline) is left as is.
+     *
+     * @return ids of the users deleted by this call
+     */
+    @Transactional
+    public List<UUID> softDeleteAll(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Instant deletedAt = Instant.now();
+        Timestamp now = Timestamp.from(deletedAt);
+        List<UUID> deleted = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SOFT_DELETE_SQL);
+            statement.setTimestamp(1, now);
+            statement.setTimestamp(2, now);
+            statement.setArray(3, connection.createArrayOf("uuid", ids.toArray()));
+            return statement;
+        }, (rs, rowNum) -> rs.getObject(1, UUID.class));
+        outbox.recordDeleted(deleted, deletedAt);
+        deleted.forEach(this::invalidate);
+        return deleted;
+    }
+
+    private boolean isActive(UUID id) {
+        return userRepository.findViewById(id).filter(user -> user.deletedAt() == null).isPresent();
+    }
+
+    private void invalidate(UUID id) {
+        userCache.evictAfterCommit(id);
+        cacheInvalidation.ifAvailable(notifier -> notifier.publish(id));
+    }
+
+    private User flush(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (OptimisticLockingFailureException e) {
+            throw new UserVersionMismatchException("User " + user.getId() + " was updated concurrently", e);
+        } catch (DataIntegrityViolationException e) {
+            if (isUniqueViolation(e)) {
+                throw new UserConflictException("Username or email already in use", e);
+            }
+            throw e;
+        }
+    }
+
+    static boolean isUniqueViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && UNIQUE_VIOLATION.equals(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,15 @@
+package com.bojan.bootcamp_01.service;
+
+/**
+ * Thrown when a write is based on a user version that is no longer current, either
+ * because the caller's {@code If-Match} is stale or because a concurrent write won.
+ */
+public class UserVersionMismatchException extends RuntimeException {
+    public UserVersionMismatchException(String message) {
+        super(message);
+    }
+
+    public UserVersionMismatchException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,119 @@
+package com.bojan.bootcamp_01.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that follows observed latency, in the style of the gradient
+ * algorithm from Netflix's concurrency-limits.
+ * <p>
+ * Latencies are averaged per window. A slow moving average of those windows stands in for
+ * the latency without queueing; when a window's average exceeds it by more than
+ * {@code tolerance}, the limit shrinks in proportion, otherwise it grows by about
+ * {@code sqrt(limit)}. The limit only grows while callers actually use at least half of
+ * it, so an idle period cannot inflate it. Admission is a CAS on the in-flight count and
+ * the window update is done by whichever caller closes the window.
+ */
+public final class AdaptiveConcurrencyLimit {
+    private static final double SMOOTHING = 0.2;
+    private static final double BASELINE_WEIGHT = 0.05;
+    private static final int MIN_SAMPLES = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder latencySum = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+    private final AtomicLong windowStart;
+    private volatile double limit;
+    private volatile double baselineNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, Duration window) {
+        this(initialLimit, minLimit, maxLimit, tolerance, window, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, Duration window,
+            LongSupplier nanoClock) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= minLimit <= maxLimit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.windowNanos = window.toNanos();
+        this.nanoClock = nanoClock;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.windowStart = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * @return true if the caller may proceed; it must then call {@link #release(long)}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                peakInFlight.accumulateAndGet(current + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param startNanos {@link System#nanoTime()} taken when the permit was acquired
+     */
+    public void release(long startNanos) {
+        inFlight.decrementAndGet();
+        long now = nanoClock.getAsLong();
+        latencySum.add(now - startNanos);
+        samples.increment();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+            update();
+        }
+    }
+
+    /**
+     * Returns a permit whose request never ran, without recording a latency sample.
+     */
+    public void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private void update() {
+        long count = samples.sumThenReset();
+        long sum = latencySum.sumThenReset();
+        int peak = peakInFlight.getAndSet(inFlight.get());
+        if (count < MIN_SAMPLES) {
+            return;
+        }
+        double average = (double) sum / count;
+        double baseline = baselineNanos == 0 ? average : baselineNanos;
+        double gradient = Math.clamp(tolerance * baseline / average, 0.5, 1.0);
+        double current = limit;
+        double target = current * gradient + Math.sqrt(current);
+        if (target > current && peak < current / 2) {
+            target = current;
+        }
+        limit = Math.clamp(current * (1 - SMOOTHING) + target * SMOOTHING, minLimit, maxLimit);
+        baselineNanos = baseline * (1 - BASELINE_WEIGHT) + average * BASELINE_WEIGHT;
+    }
+}
@@ -0,0 +1,110 @@
+package com.bojan.bootcamp_01.util;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Fixed-size, lock-free sliding-window counters keyed by string.
+ * <p>
+ * Each key maps to two slots of one {@link AtomicLongArray} through a seeded hash, and
+ * reads take the smaller of the two (a count-min sketch), so memory stays constant no
+ * matter how many distinct keys an attacker sends and collisions can only over-count.
+ * A slot packs {@code window index (32 bits) | previous count (16) | current count (16)}
+ * and is updated with a single CAS. The sliding estimate is the current count plus the
+ * previous window's count weighted by how much of it still overlaps the sliding window.
+ */
+public final class StripedSlidingWindow {
+    private static final long COUNT_MASK = 0xFFFFL;
+    private static final long WINDOW_MASK = 0xFFFF_FFFFL;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final long windowMillis;
+    private final LongSupplier clock;
+    private final long seed = ThreadLocalRandom.current().nextLong();
+
+    public StripedSlidingWindow(int stripes, Duration window) {
+        this(stripes, window, System::currentTimeMillis);
+    }
+
+    StripedSlidingWindow(int stripes, Duration window, LongSupplier clock) {
+        if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("stripes must be a power of two");
+        }
+        this.slots = new AtomicLongArray(stripes);
+        this.mask = stripes - 1;
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * @return the sliding count for {@code key} including this increment
+     */
+    public long increment(String key) {
+        long now = clock.getAsLong();
+        long hash = hash(key);
+        return Math.min(add((int) hash & mask, now), add((int) (hash >>> 32) & mask, now));
+    }
+
+    public long estimate(String key) {
+        long now = clock.getAsLong();
+        long hash = hash(key);
+        return Math.min(read((int) hash & mask, now), read((int) (hash >>> 32) & mask, now));
+    }
+
+    /**
+     * Zeroes both slots of {@code key}; keys sharing a slot lose counts too, which errs on
+     * the permissive side.
+     */
+    public void clear(String key) {
+        long hash = hash(key);
+        slots.set((int) hash & mask, 0);
+        slots.set((int) (hash >>> 32) & mask, 0);
+    }
+
+    private long add(int slot, long now) {
+        long window = (now / windowMillis) & WINDOW_MASK;
+        while (true) {
+            long packed = slots.get(slot);
+            long rolled = roll(packed, window);
+            long updated = (rolled & COUNT_MASK) == COUNT_MASK ? rolled : rolled + 1;
+            if (slots.compareAndSet(slot, packed, updated)) {
+                return slidingCount(updated, now);
+            }
+        }
+    }
+
+    private long read(int slot, long now) {
+        return slidingCount(roll(slots.get(slot), (now / windowMillis) & WINDOW_MASK), now);
+    }
+
+    private static long roll(long packed, long window) {
+        long slotWindow = packed >>> 32;
+        if (slotWindow == window) {
+            return packed;
+        }
+        long previous = slotWindow == ((window - 1) & WINDOW_MASK) ? packed & COUNT_MASK : 0;
+        return (window << 32) | (previous << 16);
+    }
+
+    private long slidingCount(long packed, long now) {
+        long current = packed & COUNT_MASK;
+        long previous = (packed >>> 16) & COUNT_MASK;
+        double overlap = 1.0 - (double) (now % windowMillis) / windowMillis;
+        return current + (long) (previous * overlap);
+    }
+
+    private long hash(String key) {
+        long h = seed;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+}
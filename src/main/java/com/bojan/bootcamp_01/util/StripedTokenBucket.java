@@ -0,0 +1,161 @@
+package com.bojan.bootcamp_01.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Fixed-size, lock-free token buckets keyed by string.
+ * <p>
+ * Like {@link StripedSlidingWindow}, each key maps to two slots of one
+ * {@link AtomicLongArray} through a seeded hash, and a request must find enough tokens in
+ * both, so memory stays constant and collisions can only make a key stricter. A slot packs
+ * {@code last refill (40 bits, ms since construction) | tokens (24 bits, 8 fractional)}
+ * and is updated with a single CAS; refill is computed lazily from the elapsed time. A slot
+ * that was never touched counts as full.
+ */
+public final class StripedTokenBucket {
+    private static final int FRACTION_BITS = 8;
+    private static final int TIME_SHIFT = 24;
+    private static final long TOKEN_MASK = (1L << TIME_SHIFT) - 1;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final long capacityUnits;
+    private final double unitsPerMilli;
+    private final LongSupplier clock;
+    private final long origin;
+    private final long seed = ThreadLocalRandom.current().nextLong();
+
+    /**
+     * @param capacity        burst size in tokens, at most 65535
+     * @param refillPerSecond tokens added per second
+     */
+    public StripedTokenBucket(int stripes, int capacity, double refillPerSecond) {
+        this(stripes, capacity, refillPerSecond, System::currentTimeMillis);
+    }
+
+    StripedTokenBucket(int stripes, int capacity, double refillPerSecond, LongSupplier clock) {
+        if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("stripes must be a power of two");
+        }
+        if (capacity <= 0 || ((long) capacity << FRACTION_BITS) > TOKEN_MASK) {
+            throw new IllegalArgumentException("capacity must be between 1 and " + (TOKEN_MASK >> FRACTION_BITS));
+        }
+        if (!(refillPerSecond > 0)) {
+            throw new IllegalArgumentException("refillPerSecond must be positive");
+        }
+        this.slots = new AtomicLongArray(stripes);
+        this.mask = stripes - 1;
+        this.capacityUnits = (long) capacity << FRACTION_BITS;
+        this.unitsPerMilli = refillPerSecond * (1 << FRACTION_BITS) / 1000.0;
+        this.clock = clock;
+        // time 0 marks an untouched slot
+        this.origin = clock.getAsLong() - 1;
+    }
+
+    /**
+     * Takes {@code tokens} from the key's bucket if it holds that many. A cost above the
+     * capacity is charged as a full bucket.
+     *
+     * @return 0 if the tokens were taken, otherwise the milliseconds until they would be
+     *         available
+     */
+    public long tryConsume(String key, int tokens) {
+        long now = clock.getAsLong() - origin;
+        long units = Math.min((long) tokens << FRACTION_BITS, capacityUnits);
+        long hash = hash(key);
+        int first = (int) hash & mask;
+        int second = (int) (hash >>> 32) & mask;
+        long wait = take(first, units, now);
+        if (wait > 0 || second == first) {
+            return wait;
+        }
+        wait = take(second, units, now);
+        if (wait > 0) {
+            give(first, units, now);
+        }
+        return wait;
+    }
+
+    /**
+     * Removes up to {@code tokens} from the key's bucket without checking, e.g. for usage
+     * reported by another node. The bucket does not go below empty.
+     */
+    public void drain(String key, long tokens) {
+        long now = clock.getAsLong() - origin;
+        long units = Math.min(tokens << FRACTION_BITS, capacityUnits);
+        long hash = hash(key);
+        int first = (int) hash & mask;
+        int second = (int) (hash >>> 32) & mask;
+        remove(first, units, now);
+        if (second != first) {
+            remove(second, units, now);
+        }
+    }
+
+    private long take(int slot, long units, long now) {
+        while (true) {
+            long packed = slots.get(slot);
+            long refilled = refill(packed, now);
+            long available = refilled & TOKEN_MASK;
+            if (available < units) {
+                return Math.max(1, (long) Math.ceil((units - available) / unitsPerMilli));
+            }
+            if (slots.compareAndSet(slot, packed, refilled - units)) {
+                return 0;
+            }
+        }
+    }
+
+    private void give(int slot, long units, long now) {
+        while (true) {
+            long packed = slots.get(slot);
+            long refilled = refill(packed, now);
+            long tokens = Math.min(capacityUnits, (refilled & TOKEN_MASK) + units);
+            if (slots.compareAndSet(slot, packed, (refilled & ~TOKEN_MASK) | tokens)) {
+                return;
+            }
+        }
+    }
+
+    private void remove(int slot, long units, long now) {
+        while (true) {
+            long packed = slots.get(slot);
+            long refilled = refill(packed, now);
+            long tokens = Math.max(0, (refilled & TOKEN_MASK) - units);
+            if (slots.compareAndSet(slot, packed, (refilled & ~TOKEN_MASK) | tokens)) {
+                return;
+            }
+        }
+    }
+
+    private long refill(long packed, long now) {
+        long time = packed >>> TIME_SHIFT;
+        if (time == 0) {
+            return (now << TIME_SHIFT) | capacityUnits;
+        }
+        long tokens = packed & TOKEN_MASK;
+        long added = (long) ((now - time) * unitsPerMilli);
+        if (added <= 0) {
+            // keep the old timestamp so sub-unit refills accumulate instead of being lost
+            return packed;
+        }
+        if (tokens + added >= capacityUnits) {
+            return (now << TIME_SHIFT) | capacityUnits;
+        }
+        return ((time + (long) (added / unitsPerMilli)) << TIME_SHIFT) | (tokens + added);
+    }
+
+    private long hash(String key) {
+        long h = seed;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+}
@@ -0,0 +1,45 @@
+package com.bojan.bootcamp_01.util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUID version 7 (RFC 9562): 48-bit Unix millisecond timestamp, a 12-bit
+ * counter that keeps ids generated in the same millisecond increasing, and 62 random bits.
+ * Lock-free so it is safe to call from virtual threads.
+ */
+public final class UuidV7 {
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private UuidV7() {
+    }
+
+    public static UUID next() {
+        long stamp = nextStamp();
+        long msb = (stamp >>> 12) << 16 | 0x7000L | (stamp & 0xFFFL);
+        long lsb = ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * @return {@code millis << 12 | counter}, strictly greater than the previous value
+     */
+    private static long nextStamp() {
+        while (true) {
+            long previous = LAST.get();
+            long now = System.currentTimeMillis() << 12;
+            long candidate = now > previous ? now : previous + 1;
+            if (LAST.compareAndSet(previous, candidate)) {
+                return candidate;
+            }
+        }
+    }
+
+    /**
+     * @return the creation time in epoch milliseconds encoded in a version 7 id
+     */
+    public static long timestamp(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
@@ -0,0 +1,52 @@
+package com.bojan.bootcamp_01.config;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DbConcurrencyLimiterTest {
+
+    @Test
+    void permitIsHeldUntilConnectionCloses() throws Exception {
+        DataSource pool = Mockito.mock(DataSource.class);
+        Mockito.when(pool.getConnection()).thenAnswer(invocation -> Mockito.mock(Connection.class));
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(
+                new DbLimiterProperties(true, 1, Duration.ofMillis(50)));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        limiter.bindTo(registry);
+        DataSource limited = limiter.wrap(pool);
+
+        Connection first = limited.getConnection();
+        assertEquals(0.0, registry.get("db.limiter.available").gauge().value());
+        assertThrows(SQLTransientConnectionException.class, limited::getConnection);
+
+        first.close();
+        first.close(); // a second close must not release an extra permit
+        assertEquals(1.0, registry.get("db.limiter.available").gauge().value());
+        limited.getConnection().close();
+    }
+
+    @Test
+    void permitIsReturnedWhenPoolFails() throws Exception {
+        DataSource pool = Mockito.mock(DataSource.class);
+        Mockito.when(pool.getConnection()).thenThrow(new SQLTransientConnectionException("pool exhausted"));
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(
+                new DbLimiterProperties(true, 1, Duration.ofMillis(50)));
+        DataSource limited = limiter.wrap(pool);
+
+        assertThrows(SQLTransientConnectionException.class, limited::getConnection);
+        Mockito.reset(pool);
+        Mockito.when(pool.getConnection()).thenAnswer(invocation -> Mockito.mock(Connection.class));
+        limited.getConnection().close();
+    }
+}
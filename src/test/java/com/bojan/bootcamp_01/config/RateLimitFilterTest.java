@@ -0,0 +1,67 @@
+package com.bojan.bootcamp_01.config;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RateLimitFilterTest {
+    private final RateLimiter limiter = new RateLimiter(new RateLimitProperties(true, 10, 1.0, 1024,
+            List.of(new RateLimitProperties.Route("POST", "/api/users", 5, null, null),
+                    new RateLimitProperties.Route("GET", "/api/users/export", 1, 0.5, null)),
+            null, new RateLimitProperties.Concurrency(true, 2, 1, 2, null, null), null));
+    private final RateLimitFilter filter = new RateLimitFilter(limiter);
+
+    private MockHttpServletResponse call(String method, String path, String client) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(client);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void expensiveRoutesDrainTheClientBucketFaster() throws Exception {
+        assertEquals(200, call("POST", "/api/users", "10.0.0.1").getStatus());
+        assertEquals(200, call("POST", "/api/users", "10.0.0.1").getStatus());
+        MockHttpServletResponse limited = call("POST", "/api/users", "10.0.0.1");
+        assertEquals(429, limited.getStatus());
+        assertEquals("5", limited.getHeader("Retry-After"));
+
+        // other clients and exempt paths are unaffected
+        assertEquals(200, call("POST", "/api/users", "10.0.0.2").getStatus());
+        assertEquals(200, call("GET", "/actuator/health", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void routeBucketIsSharedByAllClients() throws Exception {
+        assertEquals(200, call("GET", "/api/users/export", "10.0.0.1").getStatus());
+        MockHttpServletResponse limited = call("GET", "/api/users/export", "10.0.0.2");
+        assertEquals(429, limited.getStatus());
+        assertNotNull(limited.getHeader("Retry-After"));
+    }
+
+    @Test
+    void shedsWhenConcurrencyLimitIsReached() throws Exception {
+        RateLimiter.Decision first = limiter.admit("GET", "/api/users/1", "10.0.0.1");
+        RateLimiter.Decision second = limiter.admit("GET", "/api/users/2", "10.0.0.2");
+
+        MockHttpServletResponse shed = call("GET", "/api/users/3", "10.0.0.3");
+        assertEquals(503, shed.getStatus());
+        assertEquals("1", shed.getHeader("Retry-After"));
+        // probes are answered even when the node sheds load
+        assertEquals(200, call("GET", "/health/ready", "10.0.0.3").getStatus());
+
+        limiter.release(first, System.nanoTime());
+        limiter.release(second, System.nanoTime());
+        MockHttpServletResponse admitted = call("GET", "/api/users/3", "10.0.0.3");
+        assertEquals(200, admitted.getStatus());
+        assertNull(admitted.getHeader("Retry-After"));
+    }
+}
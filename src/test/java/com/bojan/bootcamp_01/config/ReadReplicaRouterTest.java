@@ -0,0 +1,92 @@
+package com.bojan.bootcamp_01.config;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadReplicaRouterTest {
+    private final DataSource primary = Mockito.mock(DataSource.class);
+    private final DataSource replica = Mockito.mock(DataSource.class);
+    private final ReadReplicaRouter router = new ReadReplicaRouter(replica,
+            new ReadReplicaProperties(true, "jdbc:replica", null, null, null, Duration.ofSeconds(2), null));
+    private DataSource routed;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Mockito.when(primary.getConnection()).thenAnswer(invocation -> Mockito.mock(Connection.class));
+        Mockito.when(replica.getConnection()).thenAnswer(invocation -> Mockito.mock(Connection.class));
+        routed = router.wrap(primary);
+    }
+
+    private void read() throws Exception {
+        try (Connection connection = routed.getConnection()) {
+            connection.setReadOnly(true);
+            connection.createStatement();
+        }
+    }
+
+    @Test
+    void readOnlyConnectionsGoToTheReplicaOnlyWhileLagIsKnownAndLow() throws Exception {
+        read();
+        Mockito.verify(replica, Mockito.never()).getConnection();
+
+        router.recordLag(Duration.ofMillis(100));
+        read();
+        Mockito.verify(replica).getConnection();
+
+        router.recordLag(Duration.ofSeconds(5));
+        read();
+        Mockito.verify(replica).getConnection();
+    }
+
+    @Test
+    void writesAndForcedReadsUseThePrimary() throws Exception {
+        router.recordLag(Duration.ZERO);
+        try (Connection connection = routed.getConnection()) {
+            connection.createStatement();
+        }
+        ReadReplicaRouter.onPrimary(() -> {
+            try {
+                read();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return null;
+        });
+        Mockito.verify(replica, Mockito.never()).getConnection();
+    }
+
+    @Test
+    void replicaFailureFallsBackToThePrimary() throws Exception {
+        router.recordLag(Duration.ZERO);
+        Mockito.when(replica.getConnection()).thenThrow(new SQLTransientConnectionException("replica down"));
+
+        read();
+        read();
+
+        // the first failure marks the lag unknown, so the second read does not retry the replica
+        Mockito.verify(replica).getConnection();
+    }
+
+    @Test
+    void readsMayBeStaleOnlyWhileAUsableReplicaLags() {
+        assertFalse(router.mayReadStale());
+        router.recordLag(Duration.ZERO);
+        assertFalse(router.mayReadStale());
+        router.recordLag(Duration.ofMillis(300));
+        assertTrue(router.mayReadStale());
+        assertFalse(ReadReplicaRouter.onPrimary(router::mayReadStale));
+        // beyond max-lag reads go to the primary
+        router.recordLag(Duration.ofSeconds(5));
+        assertFalse(router.mayReadStale());
+    }
+}
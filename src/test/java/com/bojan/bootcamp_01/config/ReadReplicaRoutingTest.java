@@ -0,0 +1,108 @@
+package com.bojan.bootcamp_01.config;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Two independent PostgreSQL containers stand in for primary and replica; a marker row
+ * tells which one answered.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(ReadReplicaConfig.class)
+class ReadReplicaRoutingTest {
+    @Container
+    static final PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Container
+    static final PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void overrideProps(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("spring.liquibase.enabled", () -> "false");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("app.datasource.replica.enabled", () -> "true");
+        registry.add("app.datasource.replica.url", replica::getJdbcUrl);
+        registry.add("app.datasource.replica.username", replica::getUsername);
+        registry.add("app.datasource.replica.password", replica::getPassword);
+        registry.add("app.datasource.replica.lag-check-interval", () -> "200ms");
+    }
+
+    @BeforeAll
+    static void createMarkers() {
+        for (PostgreSQLContainer<?> container : new PostgreSQLContainer<?>[] { primary, replica }) {
+            JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(container.getJdbcUrl(),
+                    container.getUsername(), container.getPassword()));
+            jdbc.execute("CREATE TABLE IF NOT EXISTS marker (name TEXT)");
+            jdbc.update("DELETE FROM marker");
+            jdbc.update("INSERT INTO marker VALUES (?)", container == primary ? "primary" : "replica");
+        }
+    }
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    ReadReplicaRouter router;
+
+    private String marker(boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(readOnly);
+        return tx.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM marker", String.class));
+    }
+
+    private void awaitLagSample() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (router.lag() == null && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    void readOnlyTransactionsReadFromTheReplica() throws Exception {
+        awaitLagSample();
+
+        assertEquals("replica", marker(true));
+        assertEquals("primary", marker(false));
+        assertEquals("primary", ReadReplicaRouter.onPrimary(() -> marker(true)));
+    }
+
+    @Test
+    @DirtiesContext
+    void readsFallBackToThePrimaryWhileLagIsTooHigh() throws Exception {
+        awaitLagSample();
+        // stop sampling so the next sample cannot overwrite the simulated lag
+        router.stop();
+        router.recordLag(Duration.ofMinutes(1));
+
+        assertEquals("primary", marker(true));
+    }
+}
@@ -0,0 +1,56 @@
+package com.bojan.bootcamp_01.config;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.bojan.bootcamp_01.dto.UserPage;
+import com.bojan.bootcamp_01.dto.UserView;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UserViewSerializerTest {
+    private static final UserPage<UserView> PAGE = new UserPage<>(List.of(
+            new UserView(UUID.randomUUID(), "alice", "alice@example.com", true,
+                    Instant.parse("2025-01-01T00:00:00Z"), Instant.parse("2025-01-02T10:15:30.123Z"), null, 3),
+            new UserView(UUID.randomUUID(), "bob", "bob@example.com", false,
+                    Instant.parse("2025-01-03T00:00:00Z"), null, Instant.parse("2025-02-01T00:00:00Z"), 7)),
+            "cursor");
+
+    private static ObjectMapper mapper(JsonFactory factory, boolean streaming) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+        if (streaming) {
+            builder.modulesToInstall(new JacksonConfig().userViewModule());
+        }
+        return builder.build();
+    }
+
+    @Test
+    void writesTheSameBytesAsTheBeanSerializerInEveryFormat() throws Exception {
+        for (JsonFactory factory : List.of(new JsonFactory(), new SmileFactory(), new CBORFactory())) {
+            assertArrayEquals(mapper(factory, false).writeValueAsBytes(PAGE),
+                    mapper(factory, true).writeValueAsBytes(PAGE), factory.getFormatName());
+        }
+    }
+
+    @Test
+    void honoursSparseFieldsets() throws Exception {
+        SimpleFilterProvider filters = new SimpleFilterProvider().addFilter(UserView.FILTER,
+                SimpleBeanPropertyFilter.filterOutAllExcept(Set.of("id", "username")));
+        String json = mapper(new JsonFactory(), true).writer(filters).writeValueAsString(PAGE.items().get(0));
+        assertEquals("{\"id\":\"" + PAGE.items().get(0).id() + "\",\"username\":\"alice\"}", json);
+    }
+}
@@ -1,29 +1,62 @@
 package com.bojan.bootcamp_01.controller;
 
+import java.time.Duration;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import com.bojan.bootcamp_01.dto.UserCursor;
+import com.bojan.bootcamp_01.dto.UserEvent;
+import com.bojan.bootcamp_01.dto.UserEventPage;
+import com.bojan.bootcamp_01.dto.UserImportReport;
+import com.bojan.bootcamp_01.dto.UserMetadata;
+import com.bojan.bootcamp_01.dto.UserPage;
 import com.bojan.bootcamp_01.dto.UserRegistrationDto;
+import com.bojan.bootcamp_01.dto.UserUpdateDto;
+import com.bojan.bootcamp_01.dto.UserView;
 import com.bojan.bootcamp_01.entity.User;
 import com.bojan.bootcamp_01.repository.UserRepository;
+import com.bojan.bootcamp_01.service.HashingQueueFullException;
+import com.bojan.bootcamp_01.service.LoginService;
+import com.bojan.bootcamp_01.service.PasswordHashingService;
+import com.bojan.bootcamp_01.service.UserCache;
+import com.bojan.bootcamp_01.service.UserConflictException;
+import com.bojan.bootcamp_01.service.UserEventFeed;
+import com.bojan.bootcamp_01.service.UserEventsExpiredException;
+import com.bojan.bootcamp_01.service.UserExportService;
+import com.bojan.bootcamp_01.service.UserImportService;
+import com.bojan.bootcamp_01.service.UserSearchService;
+import com.bojan.bootcamp_01.service.UserService;
+import com.bojan.bootcamp_01.service.UserVersionMismatchException;
 import org.springframework.context.annotation.Import;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.bojan.bootcamp_01.config.JacksonConfig;
 import com.bojan.bootcamp_01.config.SecurityConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.bojan.bootcamp_01.config.UserEventsProperties;
 
 @WebMvcTest(UserController.class)
-@Import(SecurityConfig.class)
+@Import({ SecurityConfig.class, JacksonConfig.class })
 class UserControllerTest {
     @Autowired
     private MockMvc mockMvc;
@@ -31,17 +64,44 @@ class UserControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private Environment environment;
+
     @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
     @MockBean
     private UserRepository userRepository;
 
+    @MockBean
+    private UserExportService userExportService;
+
+    @MockBean
+    private PasswordHashingService passwordHashingService;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private UserCache userCache;
+
+    @MockBean
+    private UserImportService userImportService;
+
+    @MockBean
+    private UserSearchService userSearchService;
+
+    @MockBean
+    private LoginService loginService;
+
+    @MockBean
+    private UserEventFeed userEventFeed;
+
     private User user;
     private UserRegistrationDto userRegistrationDto;
 
     @BeforeEach
     void setUp() {
         user = new User(null, "testuser", "test@example.com", "hash", false, null, null, 0, null, null, null, null,
-                null);
+                null, 0);
         userRegistrationDto = new UserRegistrationDto();
         userRegistrationDto.setUsername("testuser");
         userRegistrationDto.setEmail("test@example.com");
@@ -50,26 +110,85 @@ class UserControllerTest {
 
     @Test
     void registerUser() throws Exception {
-        Mockito.when(userRepository.save(any(User.class))).thenReturn(user);
-        mockMvc.perform(MockMvcRequestBuilders.post("/api/users")
+        Mockito.when(passwordHashingService.encode(eq("password")))
+                .thenReturn(CompletableFuture.completedFuture("hash"));
+        Mockito.when(userService.create(eq("testuser"), eq("test@example.com"), eq("hash"))).thenReturn(user);
+        MvcResult pending = mockMvc.perform(MockMvcRequestBuilders.post("/api/users")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(userRegistrationDto)))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(pending))
                 .andExpect(MockMvcResultMatchers.status().isCreated())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.username").value("testuser"));
     }
 
+    @Test
+    void registerUserReturns429WhenHashingQueueIsFull() throws Exception {
+        Mockito.when(passwordHashingService.encode(any(String.class))).thenThrow(new HashingQueueFullException());
+        MvcResult pending = mockMvc.perform(MockMvcRequestBuilders.post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(userRegistrationDto)))
+                .andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(pending))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "1"));
+        Mockito.verifyNoInteractions(userService);
+    }
+
     @Test
     void getUserById() throws Exception {
         UUID id = UUID.randomUUID();
-        Mockito.when(userRepository.findById(eq(id))).thenReturn(java.util.Optional.of(user));
+        Mockito.when(userCache.findById(eq(id))).thenReturn(java.util.Optional.of(UserView.of(user)));
         mockMvc.perform(MockMvcRequestBuilders.get("/api/users/" + id))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.username").value("testuser"));
     }
 
+    @Test
+    void getUserByIdNegotiatesBinaryFormats() throws Exception {
+        UUID id = UUID.randomUUID();
+        Mockito.when(userCache.findById(eq(id))).thenReturn(java.util.Optional.of(UserView.of(user)));
+
+        byte[] cbor = mockMvc.perform(MockMvcRequestBuilders.get("/api/users/" + id).accept("application/cbor"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("testuser", new CBORMapper().readTree(cbor).get("username").asText());
+
+        byte[] smile = mockMvc.perform(MockMvcRequestBuilders.get("/api/users/" + id + "?fields=username")
+                .accept("application/x-jackson-smile"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode sparse = new SmileMapper().readTree(smile);
+        assertEquals("testuser", sparse.get("username").asText());
+        assertEquals(1, sparse.size());
+    }
+
+    @Test
+    void getUserByIdReturns304WhenETagMatches() throws Exception {
+        UUID id = UUID.randomUUID();
+        user.setVersion(3);
+        Mockito.when(userCache.findById(eq(id))).thenReturn(java.util.Optional.of(UserView.of(user)));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/" + id).header("If-None-Match", "W/\"3\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"3\""))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+    }
+
+    @Test
+    void softDeleteUserReturns412OnStaleIfMatch() throws Exception {
+        UUID id = UUID.randomUUID();
+        Mockito.when(userService.softDelete(eq(id), eq(2L)))
+                .thenThrow(new UserVersionMismatchException("stale"));
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/users/" + id).header("If-Match", "\"2\""))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+    }
+
     @Test
     void searchUserByUsername() throws Exception {
-        Mockito.when(userRepository.findByUsername(eq("testuser"))).thenReturn(java.util.Optional.of(user));
+        Mockito.when(userCache.findByUsername(eq("testuser"))).thenReturn(java.util.Optional.of(UserView.of(user)));
         mockMvc.perform(MockMvcRequestBuilders.get("/api/users/search")
                 .param("username", "testuser"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
@@ -78,10 +197,297 @@ class UserControllerTest {
 
     @Test
     void searchUserByEmail() throws Exception {
-        Mockito.when(userRepository.findByEmail(eq("test@example.com"))).thenReturn(java.util.Optional.of(user));
+        Mockito.when(userCache.findByEmail(eq("test@example.com"))).thenReturn(java.util.Optional.of(UserView.of(user)));
         mockMvc.perform(MockMvcRequestBuilders.get("/api/users/search")
                 .param("email", "test@example.com"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.username").value("testuser"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllUsersReturnsCursorWhenMoreRowsExist() throws Exception {
+        UserView first = new UserView(UUID.randomUUID(), "first", "first@example.com", false,
+                java.time.Instant.parse("2025-01-01T00:00:00Z"), null, null, 0);
+        UserView second = new UserView(UUID.randomUUID(), "second", "second@example.com", false,
+                java.time.Instant.parse("2025-01-02T00:00:00Z"), null, null, 0);
+        Mockito.when(userRepository.findActiveViews(eq(Limit.of(2))))
+                .thenReturn(java.util.List.of(first, second));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users").param("limit", "1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].username").value("first"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor")
+                        .value(UserCursor.of(first).encode()));
+    }
+
+    @Test
+    void getAllUsersFollowsCursor() throws Exception {
+        UserCursor cursor = new UserCursor(java.time.Instant.parse("2025-01-01T00:00:00Z"), UUID.randomUUID());
+        Mockito.when(userRepository.findActiveViewsAfter(eq(cursor.createdAt()), eq(cursor.id()), eq(Limit.of(51))))
+                .thenReturn(java.util.List.of(UserView.of(user)));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users").param("cursor", cursor.encode()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].username").value("testuser"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getAllUsersOrderedByIdFollowsIdOnly() throws Exception {
+        UserCursor cursor = new UserCursor(java.time.Instant.parse("2025-01-01T00:00:00Z"), UUID.randomUUID());
+        Mockito.when(userRepository.findActiveViewsAfterId(eq(cursor.id()), eq(Limit.of(51))))
+                .thenReturn(java.util.List.of(UserView.of(user)));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users").param("order", "ID")
+                .param("cursor", cursor.encode()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].username").value("testuser"));
+    }
+
+    @Test
+    void mergeUserMetadataReturnsDocumentAndETag() throws Exception {
+        UUID id = UUID.randomUUID();
+        Mockito.when(userService.mergeMetadata(eq(id), eq(3L), any()))
+                .thenReturn(java.util.Optional.of(new UserMetadata("{\"plan\": \"pro\"}", 4)));
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/users/" + id + "/metadata")
+                .contentType("application/merge-patch+json")
+                .header("If-Match", "\"3\"")
+                .content("{\"plan\":\"pro\",\"locale\":null}"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"4\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.plan").value("pro"));
+    }
+
+    @Test
+    void searchUsersByMetadataRejectsNonObjectFilter() throws Exception {
+        Mockito.when(userSearchService.searchMetadata(eq("[1]"), eq(20), eq(null)))
+                .thenThrow(new IllegalArgumentException("contains must be a non-empty JSON object"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/search/metadata").param("contains", "[1]"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void getAllUsersRejectsInvalidCursor() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users").param("cursor", "not-a-cursor"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void updateUser() throws Exception {
+        UUID id = UUID.randomUUID();
+        UserUpdateDto update = new UserUpdateDto();
+        update.setUsername("renamed");
+        update.setEmail("renamed@example.com");
+        user.setUsername("renamed");
+        Mockito.when(userService.updateIdentity(eq(id), eq(null), eq("renamed"), eq("renamed@example.com")))
+                .thenReturn(java.util.Optional.of(user));
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/users/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(update)))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.username").value("renamed"));
+    }
+
+    @Test
+    void updateUserReturns409OnConflict() throws Exception {
+        UUID id = UUID.randomUUID();
+        UserUpdateDto update = new UserUpdateDto();
+        update.setUsername("taken");
+        update.setEmail("taken@example.com");
+        Mockito.when(userService.updateIdentity(eq(id), any(), any(String.class), any(String.class)))
+                .thenThrow(new UserConflictException("taken"));
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/users/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(update)))
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+    }
+
+    @Test
+    void softDeleteUser() throws Exception {
+        UUID id = UUID.randomUUID();
+        Mockito.when(userService.softDelete(eq(id), eq(null))).thenReturn(true);
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/users/" + id))
+                .andExpect(MockMvcResultMatchers.status().isNoContent());
+    }
+
+    @Test
+    void softDeleteUnknownUser() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/users/" + UUID.randomUUID()))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    void softDeleteUsersInBulk() throws Exception {
+        UUID deleted = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        Mockito.when(userService.softDeleteAll(any())).thenReturn(java.util.List.of(deleted));
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/users/delete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(java.util.List.of(deleted, missing))))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.requested").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.deleted[0]").value(deleted.toString()));
+    }
+
+    @Test
+    void importUsersFromCsv() throws Exception {
+        UserImportReport report = new UserImportReport(2, 1, 1,
+                java.util.List.of(new UserImportReport.RowError(3, "email must be a well-formed email address")));
+        Mockito.when(userImportService.importUsers(any(java.io.InputStream.class), eq(UserImportService.Format.CSV)))
+                .thenReturn(report);
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/users/import")
+                .contentType("text/csv")
+                .content("username,email,password\nalice,alice@example.com,secret1\nbob,not-an-email,secret2\n"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.created").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors[0].line").value(3));
+    }
+
+    @Test
+    void getUserByIdNeverExposesSecrets() throws Exception {
+        UUID id = UUID.randomUUID();
+        Mockito.when(userCache.findById(eq(id))).thenReturn(java.util.Optional.of(UserView.of(user)));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/" + id))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.passwordHash").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.emailVerificationToken").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.metadata").doesNotExist());
+    }
+
+    @Test
+    void getUserByIdWithSparseFieldset() throws Exception {
+        UUID id = UUID.randomUUID();
+        Mockito.when(userCache.findById(eq(id))).thenReturn(java.util.Optional.of(UserView.of(user)));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/" + id).param("fields", "username,email"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.username").value("testuser"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.email").value("test@example.com"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.emailVerified").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.createdAt").doesNotExist());
+    }
+
+    @Test
+    void getUserByIdRejectsUnknownField() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/" + UUID.randomUUID()).param("fields", "passwordHash"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void searchUsersByTextPrefix() throws Exception {
+        Mockito.when(userSearchService.search(eq("te"), eq(UserSearchService.Mode.PREFIX), eq(20), eq(null)))
+                .thenReturn(new UserPage<>(java.util.List.of(UserView.of(user)), null));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/search/text").param("q", "te"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].username").value("testuser"));
+    }
+
+    @Test
+    void searchUsersByTextRejectsShortTerm() throws Exception {
+        Mockito.when(userSearchService.search(eq("t"), any(), any(Integer.class), any()))
+                .thenThrow(new IllegalArgumentException("too short"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/search/text").param("q", "t"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void loginReturns423WithRetryAfterWhenAccountIsLocked() throws Exception {
+        Mockito.when(loginService.login(eq("test@example.com"), eq("password"), any()))
+                .thenReturn(CompletableFuture.completedFuture(new LoginService.Result(
+                        LoginService.Outcome.ACCOUNT_LOCKED, null, Duration.ofSeconds(90))));
+        MvcResult pending = mockMvc.perform(MockMvcRequestBuilders.post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"test@example.com\",\"password\":\"password\"}"))
+                .andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(pending))
+                .andExpect(MockMvcResultMatchers.status().isLocked())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "90"));
+    }
+
+    @Test
+    void verifyEmailReturnsTheVerifiedUser() throws Exception {
+        UUID id = UUID.randomUUID();
+        Mockito.when(userService.verifyEmail(eq("token"))).thenReturn(java.util.Optional.of(new UserView(id,
+                "testuser", "test@example.com", true, null, null, null, 1)));
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/users/verify-email")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"token\":\"token\"}"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.emailVerified").value(true));
+    }
+
+    @Test
+    void verifyEmailRejectsUnknownOrMissingTokens() throws Exception {
+        Mockito.when(userService.verifyEmail(any(String.class))).thenReturn(java.util.Optional.empty());
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/users/verify-email")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"token\":\"unknown\"}"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/users/verify-email")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void getUserEventsLongPollsFromTheGivenOffset() throws Exception {
+        UUID id = UUID.randomUUID();
+        Mockito.when(userEventFeed.properties())
+                .thenReturn(new UserEventsProperties(null, null, null, null, null, null, null, null));
+        Mockito.when(userEventFeed.poll(eq(41L), eq(100), eq(Duration.ofSeconds(30))))
+                .thenReturn(CompletableFuture.completedFuture(new UserEventPage(java.util.List.of(
+                        new UserEvent(42, id, "CREATED", java.time.Instant.now(), "{\"username\":\"testuser\"}")),
+                        42)));
+        MvcResult pending = mockMvc.perform(MockMvcRequestBuilders.get("/api/users/events")
+                .param("after", "41")
+                .param("wait", "600"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(pending))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.next").value(42))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.events[0].type").value("CREATED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.events[0].payload.username").value("testuser"));
+    }
+
+    @Test
+    void getUserEventsAnswersAnEmptyPageAfterTheFullWait() throws Exception {
+        // configured values: the async request timeout must outlast max-wait plus the
+        // checker's poll interval, or the long-poll ends in a 503
+        UserEventsProperties properties = Binder.get(environment)
+                .bindOrCreate("app.users.events", UserEventsProperties.class);
+        Duration fullWait = properties.maxWait().plus(properties.pollInterval());
+        Mockito.when(userEventFeed.properties()).thenReturn(properties);
+        Mockito.when(userEventFeed.poll(eq(7L), eq(100), eq(properties.maxWait())))
+                .thenReturn(CompletableFuture.supplyAsync(() -> new UserEventPage(java.util.List.of(), 7),
+                        CompletableFuture.delayedExecutor(fullWait.toMillis(), TimeUnit.MILLISECONDS)));
+        MvcResult pending = mockMvc.perform(MockMvcRequestBuilders.get("/api/users/events")
+                .param("after", "7")
+                .param("wait", String.valueOf(properties.maxWait().toSeconds())))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(pending))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.next").value(7))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.events").isEmpty());
+    }
+
+    @Test
+    void getUserEventsReturns410WhenOffsetWasPurged() throws Exception {
+        Mockito.when(userEventFeed.properties())
+                .thenReturn(new UserEventsProperties(null, null, null, null, null, null, null, null));
+        Mockito.when(userEventFeed.poll(eq(1L), eq(100), eq(Duration.ZERO)))
+                .thenReturn(CompletableFuture.failedFuture(new UserEventsExpiredException("purged")));
+        MvcResult pending = mockMvc.perform(MockMvcRequestBuilders.get("/api/users/events").param("after", "1"))
+                .andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(pending))
+                .andExpect(MockMvcResultMatchers.status().isGone());
+    }
+
+    @Test
+    void getUserEventsRejectsOversizedLimit() throws Exception {
+        Mockito.when(userEventFeed.properties())
+                .thenReturn(new UserEventsProperties(null, null, null, null, null, null, null, null));
+        MvcResult pending = mockMvc.perform(MockMvcRequestBuilders.get("/api/users/events").param("limit", "5000"))
+                .andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(pending))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+}
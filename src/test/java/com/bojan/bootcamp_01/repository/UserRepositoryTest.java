@@ -1,6 +1,10 @@
 package com.bojan.bootcamp_01.repository;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,12 +12,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import com.bojan.bootcamp_01.dto.UserCursor;
+import com.bojan.bootcamp_01.dto.UserView;
 import com.bojan.bootcamp_01.entity.User;
 
 @DataJpaTest
@@ -39,6 +47,9 @@ public class UserRepositoryTest {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
     @BeforeEach
     void setUp() {
         userRepository.deleteAll();
@@ -53,7 +64,7 @@ public class UserRepositoryTest {
     void testRegisterAndFindUser() {
         User user = new User(null, "testuser1", "valid.email+test1@example-domain.com", "hash", false, null, null, 0,
                 null, null,
-                Instant.now(), Instant.now(), null);
+                Instant.now(), Instant.now(), null, 0);
         User saved = userRepository.save(user);
         assert saved.getId() != null;
         assert saved.getUsername().equals("testuser1");
@@ -66,7 +77,7 @@ public class UserRepositoryTest {
     void testUpdateUser() {
         User user = new User(null, "updateuser2", "valid.email+test2@example-domain.com", "hash", false, null, null, 0,
                 null, null,
-                Instant.now(), Instant.now(), null);
+                Instant.now(), Instant.now(), null, 0);
         User saved = userRepository.save(user);
         assert saved != null;
         saved.setUsername("updated2");
@@ -77,4 +88,48 @@ public class UserRepositoryTest {
         assert updated.getEmail().equals("valid.email+updated2@example-domain.com");
     }
 
-}
\ No newline at end of file
+    @Test
+    void testKeysetPagination() {
+        Instant base = Instant.parse("2025-01-01T00:00:00Z");
+        for (int i = 0; i < 5; i++) {
+            userRepository.save(new User(null, "page" + i, "page" + i + "@example.com", "hash", false, null, null, 0,
+                    null, null, base, base, null, 0));
+        }
+        List<UserView> first = userRepository.findActiveViews(Limit.of(2));
+        assert first.size() == 2;
+        UserCursor cursor = UserCursor.of(first.get(1));
+        List<UserView> rest = userRepository.findActiveViewsAfter(cursor.createdAt(), cursor.id(), Limit.of(10));
+        assert rest.size() == 3;
+        assert rest.stream().noneMatch(u -> first.stream().anyMatch(f -> f.id().equals(u.id())));
+    }
+
+    @Test
+    void testFindViewByUsername() {
+        userRepository.save(new User(null, "viewuser", "view@example.com", "hash", false, "token", null, 0,
+                null, null, Instant.now(), Instant.now(), Map.of(), 0));
+        UserView view = userRepository.findViewByUsername("viewuser").orElse(null);
+        assert view != null;
+        assert view.email().equals("view@example.com");
+    }
+
+    @Test
+    void testUuidV7IdsPageInInsertOrder() {
+        for (int i = 0; i < 5; i++) {
+            userRepository.saveAndFlush(new User(null, "v7user" + i, "v7user" + i + "@example.com", "hash", false,
+                    null, null, 0, null, null, Instant.now(), Instant.now(), null, 0));
+        }
+        UUID dbDefault = jdbcTemplate.queryForObject("INSERT INTO users (username, email, password_hash, "
+                + "email_verified, failed_login_attempts, created_at, updated_at) "
+                + "VALUES ('v7user5', 'v7user5@example.com', 'hash', false, 0, now(), now()) RETURNING id", UUID.class);
+        assert dbDefault.version() == 7;
+        List<UserView> first = userRepository.findActiveViewsById(Limit.of(3));
+        List<UserView> rest = userRepository.findActiveViewsAfterId(first.get(2).id(), Limit.of(10));
+        List<String> usernames = new ArrayList<>();
+        first.forEach(u -> usernames.add(u.username()));
+        rest.forEach(u -> usernames.add(u.username()));
+        assert first.get(0).id().version() == 7;
+        // the database default may share a millisecond with the last entity id, so only its version is checked
+        usernames.remove("v7user5");
+        assert usernames.equals(List.of("v7user0", "v7user1", "v7user2", "v7user3", "v7user4"));
+    }
+}
@@ -0,0 +1,114 @@
+package com.bojan.bootcamp_01.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.bojan.bootcamp_01.config.EmailVerificationProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class EmailVerificationSweeperTest {
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void overrideProps(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.liquibase.url", postgres::getJdbcUrl);
+        registry.add("spring.liquibase.user", postgres::getUsername);
+        registry.add("spring.liquibase.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+    }
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private final List<String> sent = new ArrayList<>();
+    private final EmailVerificationProperties properties = new EmailVerificationProperties(Duration.ofHours(24),
+            true, null, Duration.ofDays(7), 2, null);
+    private final Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    private EmailVerificationSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM users");
+        EmailVerificationTokens tokens = new EmailVerificationTokens((id, email, token) -> sent.add(email + ":"
+                + token), properties);
+        sweeper = new EmailVerificationSweeper(jdbcTemplate, transactionManager, tokens, properties,
+                new SimpleMeterRegistry());
+    }
+
+    private UUID insertUser(String name, Duration age, Duration tokenAge) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password_hash, email_verification_token, "
+                + "email_verification_sent_at, created_at, updated_at) VALUES (?, ?, ?, 'hash', ?, ?, ?, ?)",
+                id, name, name + "@example.com", EmailVerificationTokens.hash(name),
+                Timestamp.from(now.minus(tokenAge)), Timestamp.from(now.minus(age)), Timestamp.from(now.minus(age)));
+        return id;
+    }
+
+    private String storedHash(UUID id) {
+        return jdbcTemplate.queryForObject("SELECT email_verification_token FROM users WHERE id = ?", String.class,
+                id);
+    }
+
+    @Test
+    void reissuesRecentAndExpiresAbandonedTokensInBatches() {
+        UUID fresh = insertUser("fresh", Duration.ofHours(1), Duration.ofHours(1));
+        List<UUID> stale = List.of(insertUser("stale1", Duration.ofDays(2), Duration.ofDays(2)),
+                insertUser("stale2", Duration.ofDays(3), Duration.ofDays(2)),
+                insertUser("stale3", Duration.ofDays(4), Duration.ofDays(3)));
+        UUID abandoned = insertUser("abandoned", Duration.ofDays(30), Duration.ofDays(29));
+
+        EmailVerificationSweeper.Result result = sweeper.sweep(now);
+
+        assertEquals(new EmailVerificationSweeper.Result(3, 1), result);
+        assertEquals(EmailVerificationTokens.hash("fresh"), storedHash(fresh));
+        assertNull(storedHash(abandoned));
+        assertEquals(3, sent.size());
+        for (String delivery : sent) {
+            String[] parts = delivery.split(":");
+            UUID id = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", UUID.class, parts[0]);
+            assertEquals(EmailVerificationTokens.hash(parts[1]), storedHash(id));
+        }
+        assertEquals(3, stale.stream().filter(id -> storedHash(id) != null).count());
+
+        // nothing is left to sweep
+        assertEquals(new EmailVerificationSweeper.Result(0, 0), sweeper.sweep(now));
+    }
+}
@@ -0,0 +1,109 @@
+package com.bojan.bootcamp_01.service;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.boot.actuate.health.Status;
+
+import com.bojan.bootcamp_01.config.HealthSamplerProperties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HealthSamplerTest {
+    private final PasswordHashingService hashing = Mockito.mock(PasswordHashingService.class);
+
+    @Test
+    void reportsUpFromSnapshotAndGoesStale() throws Exception {
+        DataSource dataSource = Mockito.mock(DataSource.class);
+        Connection connection = Mockito.mock(Connection.class);
+        DatabaseMetaData metaData = Mockito.mock(DatabaseMetaData.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.isValid(Mockito.anyInt())).thenReturn(true);
+        Mockito.when(connection.getMetaData()).thenReturn(metaData);
+        Mockito.when(metaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        Mockito.when(hashing.queueDepth()).thenReturn(10);
+        Mockito.when(hashing.queueCapacity()).thenReturn(10);
+        HealthSampler sampler = new HealthSampler(dataSource, hashing,
+                new HealthSamplerProperties(null, Duration.ofSeconds(1), Duration.ofMillis(200), null, null));
+        try {
+            assertEquals(Status.UNKNOWN, sampler.health(HealthSampler.DATABASE).getStatus());
+            sampler.sample();
+            assertEquals(Status.UP, sampler.health(HealthSampler.DATABASE).getStatus());
+            assertEquals(Status.OUT_OF_SERVICE, sampler.health(HealthSampler.PASSWORD_HASHING).getStatus());
+            assertEquals(Status.UNKNOWN, sampler.health(HealthSampler.CONNECTION_POOL).getStatus());
+
+            Thread.sleep(300);
+            assertEquals(Status.DOWN, sampler.health(HealthSampler.DATABASE).getStatus());
+        } finally {
+            sampler.stop();
+        }
+    }
+
+    @Test
+    void abandonsDatabaseCheckAfterTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        DataSource dataSource = Mockito.mock(DataSource.class);
+        Mockito.when(dataSource.getConnection()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            throw new SQLException("pool exhausted");
+        });
+        HealthSampler sampler = new HealthSampler(dataSource, hashing,
+                new HealthSamplerProperties(null, Duration.ofMillis(100), null, null, null));
+        try {
+            long started = System.nanoTime();
+            sampler.sample();
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 1000);
+            assertEquals(Status.DOWN, sampler.health(HealthSampler.DATABASE).getStatus());
+        } finally {
+            release.countDown();
+            sampler.stop();
+        }
+    }
+
+    @Test
+    void startsNoNewDatabaseCheckWhileAnAbandonedOneIsStuck() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        DataSource dataSource = Mockito.mock(DataSource.class);
+        Mockito.when(dataSource.getConnection()).thenAnswer(invocation -> {
+            // ignores the interrupt from cancel(true), like a blocked socket read
+            while (release.getCount() > 0) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // keep blocking
+                }
+            }
+            throw new SQLException("connection reset");
+        }).thenThrow(new SQLException("connection refused"));
+        HealthSampler sampler = new HealthSampler(dataSource, hashing,
+                new HealthSamplerProperties(null, Duration.ofMillis(100), null, null, null));
+        try {
+            sampler.sample();
+            sampler.sample();
+            sampler.sample();
+            assertEquals("previous check has not returned",
+                    sampler.health(HealthSampler.DATABASE).getDetails().get("error"));
+            Mockito.verify(dataSource, Mockito.times(1)).getConnection();
+
+            release.countDown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            do {
+                Thread.sleep(20);
+                sampler.sample();
+            } while (Mockito.mockingDetails(dataSource).getInvocations().size() < 2 && System.nanoTime() < deadline);
+            Mockito.verify(dataSource, Mockito.times(2)).getConnection();
+        } finally {
+            release.countDown();
+            sampler.stop();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.bojan.bootcamp_01.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.bojan.bootcamp_01.config.LoginThrottleProperties;
+import com.bojan.bootcamp_01.config.UserPartitioningProperties;
+import com.bojan.bootcamp_01.dto.UserCredentials;
+import com.bojan.bootcamp_01.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+class LoginServiceTest {
+    private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+    private final PasswordHashingService hashing = Mockito.mock(PasswordHashingService.class);
+    private final LoginAttemptWriter writer = Mockito.mock(LoginAttemptWriter.class);
+    private final UUID id = UUID.randomUUID();
+    private final LoginService loginService = new LoginService(userRepository, hashing,
+            Mockito.mock(PasswordEncoder.class), writer,
+            new LoginThrottleProperties(3, null, Duration.ofMinutes(5), null, null, 1024, null),
+            new UserPartitioningProperties(null, null, null, null, null));
+
+    @Test
+    void locksAccountAfterRepeatedFailuresWithoutCheckingPasswordAgain() throws Exception {
+        Mockito.when(userRepository.findCredentialsByEmail("a@example.com"))
+                .thenReturn(Optional.of(new UserCredentials(id, "hash", 0, null)));
+        Mockito.when(hashing.matches(any(), eq("hash"))).thenReturn(CompletableFuture.completedFuture(false));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(LoginService.Outcome.INVALID_CREDENTIALS,
+                    loginService.login("a@example.com", "wrong", "10.0.0.1").get().outcome());
+        }
+        LoginService.Result locked = loginService.login("A@example.com", "wrong", "10.0.0.1").get();
+
+        assertEquals(LoginService.Outcome.ACCOUNT_LOCKED, locked.outcome());
+        Mockito.verify(hashing, Mockito.times(3)).matches(any(), any());
+        Mockito.verify(writer, Mockito.times(2)).recordFailure(eq(id), eq(null));
+        Mockito.verify(writer).recordFailure(eq(id), any(Instant.class));
+    }
+
+    @Test
+    void rejectsStoredLockoutBeforeHashing() throws Exception {
+        Mockito.when(userRepository.findCredentialsByEmail("b@example.com"))
+                .thenReturn(Optional.of(new UserCredentials(id, "hash", 5, Instant.now().plusSeconds(60))));
+
+        assertEquals(LoginService.Outcome.ACCOUNT_LOCKED,
+                loginService.login("b@example.com", "secret", "10.0.0.2").get().outcome());
+        Mockito.verify(hashing, Mockito.never()).matches(any(), any());
+    }
+}
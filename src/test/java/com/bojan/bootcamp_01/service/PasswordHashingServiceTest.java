@@ -0,0 +1,55 @@
+package com.bojan.bootcamp_01.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.bojan.bootcamp_01.config.PasswordHashingProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PasswordHashingServiceTest {
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hashed:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return false;
+            }
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHashingService service = new PasswordHashingService(blocking,
+                new PasswordHashingProperties("bcrypt", 4, 1, 1), registry);
+        try {
+            CompletableFuture<String> running = service.encode("a");
+            CompletableFuture<String> queued = service.encode("b");
+            assertThrows(HashingQueueFullException.class, () -> service.encode("c"));
+            assertEquals(1, service.queueDepth());
+
+            release.countDown();
+            assertEquals("hashed:a", running.get(5, TimeUnit.SECONDS));
+            assertEquals("hashed:b", queued.get(5, TimeUnit.SECONDS));
+            assertEquals(2, registry.get("users.password.hash").timer().count());
+        } finally {
+            service.destroy();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.bojan.bootcamp_01.service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import com.bojan.bootcamp_01.config.ReadReplicaRouter;
+import com.bojan.bootcamp_01.config.UserCacheProperties;
+import com.bojan.bootcamp_01.config.UserPartitioningProperties;
+import com.bojan.bootcamp_01.dto.UserView;
+import com.bojan.bootcamp_01.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class UserCacheTest {
+    private UserRepository userRepository;
+    private UserCache userCache;
+    private UserView user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = Mockito.mock(UserRepository.class);
+        userCache = newCache(new DefaultListableBeanFactory().getBeanProvider(ReadReplicaRouter.class));
+        user = new UserView(UUID.randomUUID(), "cached", "cached@example.com", false, null, null, null, 0);
+    }
+
+    private UserCache newCache(ObjectProvider<ReadReplicaRouter> replicaRouter) {
+        return new UserCache(userRepository, new UserCacheProperties(null, null, null, null),
+                new UserPartitioningProperties(null, null, null, null, null), new SimpleMeterRegistry(),
+                new DefaultListableBeanFactory().getBeanProvider(UserSecondLevelCache.class), replicaRouter);
+    }
+
+    @Test
+    void lookupsByAnyKeyShareOneEntry() {
+        Mockito.when(userRepository.findViewById(user.id())).thenReturn(Optional.of(user));
+
+        assertSame(user, userCache.findById(user.id()).orElseThrow());
+        assertSame(user, userCache.findByUsername("cached").orElseThrow());
+        assertSame(user, userCache.findByEmail("cached@example.com").orElseThrow());
+
+        Mockito.verify(userRepository, Mockito.times(1)).findViewById(user.id());
+        Mockito.verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void evictByIdInvalidatesAliases() {
+        Mockito.when(userRepository.findViewByUsername("cached")).thenReturn(Optional.of(user));
+        userCache.findByUsername("cached");
+
+        UserView renamed = new UserView(user.id(), "renamed", "cached@example.com", false, null, null, null, 1);
+        userCache.evict(user.id());
+        Mockito.when(userRepository.findViewByUsername("cached")).thenReturn(Optional.empty());
+        Mockito.when(userRepository.findViewById(user.id())).thenReturn(Optional.of(renamed));
+
+        assertEquals("renamed", userCache.findById(user.id()).orElseThrow().username());
+        assertEquals(Optional.empty(), userCache.findByUsername("cached"));
+    }
+
+    @Test
+    void doesNotCacheReadsFromALaggingReplica() {
+        ReadReplicaRouter router = Mockito.mock(ReadReplicaRouter.class);
+        UserCache cache = newCache(new StaticListableBeanFactory(Map.of("readReplicaRouter", router))
+                .getBeanProvider(ReadReplicaRouter.class));
+        Mockito.when(userRepository.findViewById(user.id())).thenReturn(Optional.of(user));
+
+        Mockito.when(router.mayReadStale()).thenReturn(true);
+        assertSame(user, cache.findById(user.id()).orElseThrow());
+        assertSame(user, cache.findById(user.id()).orElseThrow());
+        Mockito.verify(userRepository, Mockito.times(2)).findViewById(user.id());
+
+        Mockito.when(router.mayReadStale()).thenReturn(false);
+        cache.findById(user.id());
+        cache.findById(user.id());
+        Mockito.verify(userRepository, Mockito.times(3)).findViewById(user.id());
+    }
+}
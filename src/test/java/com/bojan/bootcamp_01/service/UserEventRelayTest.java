@@ -0,0 +1,139 @@
+package com.bojan.bootcamp_01.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.bojan.bootcamp_01.config.UserEventsProperties;
+import com.bojan.bootcamp_01.dto.UserEvent;
+import com.bojan.bootcamp_01.dto.UserEventPage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class UserEventRelayTest {
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void overrideProps(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.liquibase.url", postgres::getJdbcUrl);
+        registry.add("spring.liquibase.user", postgres::getUsername);
+        registry.add("spring.liquibase.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+    }
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private final UserEventsProperties properties = new UserEventsProperties(false, null, 2, Duration.ofDays(1),
+            Duration.ofMillis(50), Duration.ofSeconds(5), null, null);
+    private final InMemoryUserEventSink sink = new InMemoryUserEventSink(100);
+    private UserEventFeed feed;
+    private UserEventRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM user_events");
+        feed = new UserEventFeed(jdbcTemplate, properties);
+        feed.start();
+        relay = new UserEventRelay(jdbcTemplate, transactionManager, sink, feed, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.stop();
+    }
+
+    private void insertEvent(String type) {
+        jdbcTemplate.update("INSERT INTO user_events (user_id, event_type, payload) VALUES (?, ?, '{}'::jsonb)",
+                UUID.randomUUID(), type);
+    }
+
+    @Test
+    void publishesInBatchesWithDenseOffsets() {
+        for (String type : List.of("CREATED", "UPDATED", "DELETED")) {
+            insertEvent(type);
+        }
+        relay.run();
+
+        List<UserEvent> published = sink.events();
+        assertEquals(List.of(1L, 2L, 3L), published.stream().map(UserEvent::offset).toList());
+        assertEquals(List.of("CREATED", "UPDATED", "DELETED"), published.stream().map(UserEvent::type).toList());
+
+        UserEventPage page = feed.read(1, 10);
+        assertEquals(2, page.events().size());
+        assertEquals(3, page.next());
+        assertTrue(feed.read(3, 10).events().isEmpty());
+    }
+
+    @Test
+    void failingSinkLeavesEventsForTheNextRun() {
+        insertEvent("CREATED");
+        UserEventRelay failing = new UserEventRelay(jdbcTemplate, transactionManager, events -> {
+            throw new IllegalStateException("broker down");
+        }, feed, properties);
+        failing.run();
+        assertEquals(0L, feed.head());
+
+        relay.run();
+        assertEquals(1L, feed.head());
+        assertEquals(1, sink.events().size());
+    }
+
+    @Test
+    void pollWaitsForTheRelay() throws Exception {
+        CompletableFuture<UserEventPage> waiting = feed.poll(0, 10, Duration.ofSeconds(5));
+        assertFalse(waiting.isDone());
+
+        insertEvent("CREATED");
+        relay.run();
+
+        assertEquals(1, waiting.get().events().size());
+        assertTrue(feed.poll(1, 10, Duration.ofMillis(100)).get().events().isEmpty());
+    }
+
+    @Test
+    void readReportsPurgedOffsets() {
+        for (int i = 0; i < 3; i++) {
+            insertEvent("CREATED");
+        }
+        relay.run();
+        jdbcTemplate.update("DELETE FROM user_events WHERE stream_offset = 1");
+
+        assertThrows(UserEventsExpiredException.class, () -> feed.read(0, 10));
+        assertEquals(2, feed.read(1, 10).events().size());
+    }
+}
@@ -0,0 +1,117 @@
+package com.bojan.bootcamp_01.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.bojan.bootcamp_01.config.EmailVerificationProperties;
+import com.bojan.bootcamp_01.config.UserImportProperties;
+import com.bojan.bootcamp_01.dto.UserImportReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.Validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+class UserImportServiceTest {
+    private JdbcTemplate jdbcTemplate;
+    private PasswordEncoder passwordEncoder;
+    private EmailVerificationSender sender;
+    private UserImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        passwordEncoder = Mockito.mock(PasswordEncoder.class);
+        sender = Mockito.mock(EmailVerificationSender.class);
+        Mockito.when(passwordEncoder.encode(anyString())).thenReturn("hash");
+        Mockito.when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    int rows = invocation.getArgument(1, BatchPreparedStatementSetter.class).getBatchSize();
+                    int[] counts = new int[rows];
+                    Arrays.fill(counts, 1);
+                    return counts;
+                });
+        importService = new UserImportService(jdbcTemplate, Mockito.mock(PlatformTransactionManager.class),
+                passwordEncoder, Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+                ForkJoinPool.commonPool(), new UserImportProperties(null, null, null),
+                Mockito.mock(UserEventOutbox.class),
+                new EmailVerificationTokens(sender, new EmailVerificationProperties(null, null, null, null, null, null)));
+    }
+
+    @Test
+    void splitsQuotedFieldsWithCommasAndDoubledQuotes() {
+        assertEquals(List.of("alice", "a@example.com", "pa,ss\"word"),
+                UserImportService.splitCsv("alice,a@example.com,\"pa,ss\"\"word\""));
+        assertEquals(List.of("", "b", ""), UserImportService.splitCsv("\"\",b,"));
+    }
+
+    @Test
+    void rejectsMalformedQuoting() {
+        assertThrows(IllegalArgumentException.class, () -> UserImportService.splitCsv("alice,\"open"));
+        assertThrows(IllegalArgumentException.class, () -> UserImportService.splitCsv("alice,\"a\"b,c"));
+        assertThrows(IllegalArgumentException.class, () -> UserImportService.splitCsv("alice,pa\"ss,c"));
+    }
+
+    @Test
+    void importsQuotedPasswordsAndRejectsOnlyTheMalformedRows() throws IOException {
+        String csv = """
+                "username",email,password
+                alice,alice@example.com,"secret,with""comma"
+                bob,bob@example.com,"unterminated
+                carol,carol@example.com,plain,extra
+                dave,dave@example.com,se"cret1
+                """;
+
+        UserImportReport report = importService.importUsers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), UserImportService.Format.CSV);
+
+        assertEquals(4, report.received());
+        assertEquals(1, report.created());
+        assertEquals(3, report.failed());
+        assertEquals(List.of(3L, 4L, 5L), report.errors().stream().map(UserImportReport.RowError::line).toList());
+        assertTrue(report.errors().get(0).message().startsWith("malformed CSV"));
+        Mockito.verify(passwordEncoder).encode("secret,with\"comma");
+        Mockito.verify(sender).send(any(), Mockito.eq("alice@example.com"), anyString());
+        Mockito.verifyNoMoreInteractions(sender);
+    }
+
+    @Test
+    void readsTheHeaderIndependentlyOfTheDefaultLocale() throws IOException {
+        Locale defaultLocale = Locale.getDefault();
+        // in Turkish, "I".toLowerCase() is a dotless i, so "EMAIL" would not match "email"
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            UserImportReport report = importService.importUsers(new ByteArrayInputStream(
+                    "USERNAME,EMAIL,PASSWORD\nalice,alice@example.com,secret1\n".getBytes(StandardCharsets.UTF_8)),
+                    UserImportService.Format.CSV);
+
+            assertEquals(1, report.created());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void rejectsAMalformedHeader() {
+        assertThrows(IllegalArgumentException.class, () -> importService.importUsers(
+                new ByteArrayInputStream("username,\"email,password\n".getBytes(StandardCharsets.UTF_8)),
+                UserImportService.Format.CSV));
+    }
+}
@@ -0,0 +1,83 @@
+package com.bojan.bootcamp_01.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.bojan.bootcamp_01.config.UserPurgeProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class UserPurgeJobTest {
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void overrideProps(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.liquibase.url", postgres::getJdbcUrl);
+        registry.add("spring.liquibase.user", postgres::getUsername);
+        registry.add("spring.liquibase.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+    }
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM users_archive");
+        jdbcTemplate.update("DELETE FROM users");
+        for (int i = 0; i < 5; i++) {
+            jdbcTemplate.update("INSERT INTO users (id, username, email, password_hash, deleted_at) "
+                    + "VALUES (gen_random_uuid(), ?, ?, 'hash', now() - interval '40 days')",
+                    "old" + i, "old" + i + "@example.com");
+        }
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password_hash, deleted_at) "
+                + "VALUES (gen_random_uuid(), 'recent', 'recent@example.com', 'hash', now() - interval '1 day')");
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password_hash) "
+                + "VALUES (gen_random_uuid(), 'active', 'active@example.com', 'hash')");
+    }
+
+    @Test
+    void movesOnlyExpiredRowsInBatches() {
+        UserPurgeJob job = new UserPurgeJob(jdbcTemplate, transactionManager,
+                new UserPurgeProperties(true, null, null, 2, Duration.ZERO, null), new SimpleMeterRegistry());
+
+        long moved = job.purge(Instant.now().minus(Duration.ofDays(30)));
+
+        assertEquals(5, moved);
+        assertEquals(List.of("active", "recent"),
+                jdbcTemplate.queryForList("SELECT username FROM users ORDER BY username", String.class));
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT count(*) FROM users_archive", Integer.class));
+    }
+}
@@ -0,0 +1,148 @@
+package com.bojan.bootcamp_01.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.bojan.bootcamp_01.config.UserSearchProperties;
+import com.bojan.bootcamp_01.dto.UserCursor;
+import com.bojan.bootcamp_01.dto.UserPage;
+import com.bojan.bootcamp_01.dto.UserView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserSearchServiceTest {
+    private JdbcTemplate jdbcTemplate;
+    private UserSearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        searchService = new UserSearchService(jdbcTemplate, Mockito.mock(PlatformTransactionManager.class),
+                new UserSearchProperties(10, 3, null), new ObjectMapper());
+    }
+
+    @Test
+    void escapesLikeWildcards() {
+        assertEquals("user\\_1\\%", UserSearchService.escapeLike("user_1%"));
+        assertEquals("a\\\\b", UserSearchService.escapeLike("a\\b"));
+    }
+
+    @Test
+    void rejectsTermsShorterThanTheMinimumAfterTrimming() {
+        assertThrows(IllegalArgumentException.class,
+                () -> searchService.search("  ab  ", UserSearchService.Mode.PREFIX, 10, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> searchService.search(null, UserSearchService.Mode.CONTAINS, 10, null));
+
+        Mockito.verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void rejectsLimitsOutsideOneToMax() {
+        assertThrows(IllegalArgumentException.class,
+                () -> searchService.search("abc", UserSearchService.Mode.PREFIX, 0, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> searchService.search("abc", UserSearchService.Mode.PREFIX, 11, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> searchService.searchMetadata("{\"plan\":\"pro\"}", 11, null));
+
+        Mockito.verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void rejectsACursorInSimilarityMode() {
+        UserCursor cursor = new UserCursor(Instant.parse("2025-01-01T00:00:00Z"), UUID.randomUUID());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> searchService.search("abc", UserSearchService.Mode.SIMILAR, 10, cursor));
+
+        Mockito.verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void rejectsEmptyOrNonObjectMetadataFilters() {
+        assertThrows(IllegalArgumentException.class, () -> searchService.searchMetadata("{}", 10, null));
+        assertThrows(IllegalArgumentException.class, () -> searchService.searchMetadata("[1]", 10, null));
+        assertThrows(IllegalArgumentException.class, () -> searchService.searchMetadata("{plan", 10, null));
+
+        Mockito.verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void fetchesOneExtraRowAndReturnsACursorAfterTheLastItem() {
+        List<UserView> rows = List.of(user(1), user(2), user(3));
+        List<Object> args = stubQuery(rows);
+
+        UserPage<UserView> page = searchService.search("Abc", UserSearchService.Mode.PREFIX, 2, null);
+
+        assertEquals(rows.subList(0, 2), page.items());
+        assertEquals(UserCursor.of(rows.get(1)).encode(), page.nextCursor());
+        assertEquals(List.of("abc%", "abc%", 3), args);
+    }
+
+    @Test
+    void continuesAfterTheCursorAndEndsOnAShortPage() {
+        UserCursor cursor = new UserCursor(Instant.parse("2025-01-01T00:00:00Z"), UUID.randomUUID());
+        List<UserView> rows = List.of(user(4));
+        List<Object> args = stubQuery(rows);
+
+        UserPage<UserView> page = searchService.search("abc", UserSearchService.Mode.CONTAINS, 2, cursor);
+
+        assertEquals(rows, page.items());
+        assertNull(page.nextCursor());
+        assertEquals(List.of("%abc%", "%abc%", Timestamp.from(cursor.createdAt()), cursor.id(), 3), args);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(jdbcTemplate).query(sql.capture(), Mockito.<RowMapper<UserView>>any(),
+                Mockito.any(Object[].class));
+        assertTrue(sql.getValue().contains("(created_at, id) > (?, ?)"));
+    }
+
+    @Test
+    void similarityResultsAreASinglePage() {
+        stubQuery(List.of(user(1), user(2)));
+
+        UserPage<UserView> page = searchService.search("abc", UserSearchService.Mode.SIMILAR, 2, null);
+
+        assertEquals(2, page.items().size());
+        assertNull(page.nextCursor());
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(jdbcTemplate).query(sql.capture(), Mockito.<RowMapper<UserView>>any(),
+                Mockito.any(Object[].class));
+        assertFalse(sql.getValue().contains("(created_at, id) >"));
+    }
+
+    /** Answers every query with {@code rows} and collects the bind arguments it was given. */
+    private List<Object> stubQuery(List<UserView> rows) {
+        List<Object> args = new ArrayList<>();
+        Mockito.when(jdbcTemplate.query(Mockito.anyString(), Mockito.<RowMapper<UserView>>any(),
+                Mockito.any(Object[].class))).thenAnswer(invocation -> {
+                    Object[] all = invocation.getArguments();
+                    args.addAll(Arrays.asList(all).subList(2, all.length));
+                    return rows;
+                });
+        return args;
+    }
+
+    private static UserView user(int n) {
+        Instant createdAt = Instant.parse("2025-01-01T00:00:00Z").plusSeconds(n);
+        return new UserView(UUID.randomUUID(), "user" + n, "user" + n + "@example.com", true, createdAt,
+                createdAt, null, 0);
+    }
+}
@@ -0,0 +1,239 @@
+package com.bojan.bootcamp_01.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.bojan.bootcamp_01.config.EmailVerificationConfig;
+import com.bojan.bootcamp_01.config.UserCacheConfig;
+import com.bojan.bootcamp_01.config.UserPartitioningConfig;
+import com.bojan.bootcamp_01.dto.UserMetadata;
+import com.bojan.bootcamp_01.dto.UserView;
+import com.bojan.bootcamp_01.entity.User;
+import com.bojan.bootcamp_01.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+@Import({ UserService.class, UserCache.class, UserCacheConfig.class, UserPartitioningConfig.class,
+        UserEventOutbox.class, EmailVerificationTokens.class, EmailVerificationConfig.class,
+        JacksonAutoConfiguration.class, SimpleMeterRegistry.class })
+class UserServiceTest {
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void overrideProps(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.liquibase.url", postgres::getJdbcUrl);
+        registry.add("spring.liquibase.user", postgres::getUsername);
+        registry.add("spring.liquibase.password", postgres::getPassword);
+    }
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private User existing;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM user_events");
+        existing = userService.create("original", "original@example.com", "hash");
+        userService.create("other", "other@example.com", "hash");
+        entityManager.clear();
+    }
+
+    @Test
+    void updateIdentityUsesAtMostTwoStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Optional<User> updated = userService.updateIdentity(existing.getId(), null, "renamed", "renamed@example.com");
+
+        assertTrue(updated.isPresent());
+        assertEquals("renamed", updated.get().getUsername());
+        assertTrue(statistics.getPrepareStatementCount() <= 2,
+                "expected at most 2 statements but was " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void updateIdentityKeepsColumnsWrittenOutsideHibernate() {
+        // loaded before the login attempt writer and the sweeper touch the row
+        userRepository.findById(existing.getId()).orElseThrow();
+        jdbcTemplate.update("UPDATE users SET failed_login_attempts = 3, lockout_until = now() + interval '15 minutes', "
+                + "email_verification_token = 'reissued' WHERE id = ?", existing.getId());
+
+        userService.updateIdentity(existing.getId(), null, "renamed", existing.getEmail());
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT failed_login_attempts, lockout_until, "
+                + "email_verification_token FROM users WHERE id = ?", existing.getId());
+        assertEquals(3, row.get("failed_login_attempts"));
+        assertNotNull(row.get("lockout_until"));
+        assertEquals("reissued", row.get("email_verification_token"));
+    }
+
+    @Test
+    void updateIdentityRejectsStaleVersion() {
+        long version = existing.getVersion();
+        userService.updateIdentity(existing.getId(), version, "first", "first@example.com");
+        entityManager.clear();
+
+        assertThrows(UserVersionMismatchException.class,
+                () -> userService.updateIdentity(existing.getId(), version, "second", "second@example.com"));
+    }
+
+    @Test
+    void updateIdentityRejectsTakenUsername() {
+        assertThrows(UserConflictException.class,
+                () -> userService.updateIdentity(existing.getId(), null, "other", "original@example.com"));
+    }
+
+    @Test
+    void createMapsUniqueViolationToConflict() {
+        assertThrows(UserConflictException.class,
+                () -> userService.create("original", "fresh@example.com", "hash"));
+    }
+
+    @Test
+    void softDeleteAllSkipsMissingAndAlreadyDeletedUsers() {
+        User other = userRepository.findByUsername("other").orElseThrow();
+        assertTrue(userService.softDelete(other.getId(), null));
+
+        List<UUID> deleted = userService.softDeleteAll(List.of(existing.getId(), other.getId(), UUID.randomUUID()));
+
+        assertEquals(List.of(existing.getId()), deleted);
+    }
+
+    @Test
+    void mergeMetadataAddsReplacesAndRemovesMembersInTheDatabase() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        userService.mergeMetadata(existing.getId(), null,
+                (ObjectNode) mapper.readTree("{\"plan\":\"free\",\"locale\":\"en\"}"));
+
+        UserMetadata merged = userService.mergeMetadata(existing.getId(), null,
+                (ObjectNode) mapper.readTree("{\"plan\":\"pro\",\"locale\":null}")).orElseThrow();
+        UserMetadata nested = userService.setMetadata(existing.getId(), merged.version(), List.of("prefs"),
+                mapper.readTree("{\"theme\":\"dark\"}")).orElseThrow();
+
+        assertEquals(mapper.readTree("{\"plan\":\"pro\"}"), mapper.readTree(merged.json()));
+        assertEquals(mapper.readTree("{\"plan\":\"pro\",\"prefs\":{\"theme\":\"dark\"}}"),
+                mapper.readTree(nested.json()));
+        assertThrows(UserVersionMismatchException.class, () -> userService.setMetadata(existing.getId(),
+                merged.version(), List.of("plan"), mapper.readTree("\"team\"")));
+    }
+
+    @Test
+    void writesRecordOutboxEventsInTheSameTransaction() {
+        userService.updateIdentity(existing.getId(), null, "renamed", "renamed@example.com");
+        userService.softDelete(existing.getId(), null);
+
+        List<String> events = jdbcTemplate.queryForList("SELECT event_type || ':' || (payload->>'username') "
+                + "FROM user_events WHERE user_id = ? ORDER BY id", String.class, existing.getId());
+        assertEquals(List.of("CREATED:original", "UPDATED:renamed", "DELETED:null"), events);
+    }
+
+    @Test
+    void createStoresOnlyTheHashOfTheVerificationToken() {
+        String stored = jdbcTemplate.queryForObject("SELECT email_verification_token FROM users WHERE id = ?",
+                String.class, existing.getId());
+        assertNotNull(stored);
+        assertEquals(64, stored.length());
+    }
+
+    @Test
+    void verifyEmailAcceptsAFreshTokenOnce() {
+        jdbcTemplate.update("UPDATE users SET email_verification_token = ?, email_verification_sent_at = now() "
+                + "WHERE id = ?", EmailVerificationTokens.hash("fresh-token"), existing.getId());
+
+        Optional<UserView> verified = userService.verifyEmail("fresh-token");
+
+        assertTrue(verified.isPresent());
+        assertTrue(verified.get().emailVerified());
+        assertEquals(existing.getVersion() + 1, verified.get().version());
+        assertFalse(userService.verifyEmail("fresh-token").isPresent());
+    }
+
+    @Test
+    void changingEmailRevokesTheTokenSentToTheOldAddress() {
+        jdbcTemplate.update("UPDATE users SET email_verified = true, email_verification_token = ?, "
+                + "email_verification_sent_at = now() - interval '1 hour' WHERE id = ?",
+                EmailVerificationTokens.hash("old-address-token"), existing.getId());
+
+        userService.updateIdentity(existing.getId(), null, "original", "moved@example.com");
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT email_verified, email_verification_token, "
+                + "email_verification_sent_at > now() - interval '1 minute' AS fresh FROM users WHERE id = ?",
+                existing.getId());
+        assertEquals(false, row.get("email_verified"));
+        assertNotNull(row.get("email_verification_token"));
+        assertEquals(true, row.get("fresh"));
+        assertFalse(userService.verifyEmail("old-address-token").isPresent());
+    }
+
+    @Test
+    void renamingKeepsTheVerifiedEmail() {
+        jdbcTemplate.update("UPDATE users SET email_verified = true, email_verification_token = NULL, "
+                + "email_verification_sent_at = NULL WHERE id = ?", existing.getId());
+
+        User updated = userService.updateIdentity(existing.getId(), null, "renamed", existing.getEmail())
+                .orElseThrow();
+
+        assertTrue(updated.isEmailVerified());
+    }
+
+    @Test
+    void verifyEmailRejectsExpiredTokens() {
+        jdbcTemplate.update("UPDATE users SET email_verification_token = ?, "
+                + "email_verification_sent_at = now() - interval '2 days' WHERE id = ?",
+                EmailVerificationTokens.hash("stale-token"), existing.getId());
+
+        assertFalse(userService.verifyEmail("stale-token").isPresent());
+    }
+}
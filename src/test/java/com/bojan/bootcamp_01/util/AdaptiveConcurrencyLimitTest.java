@@ -0,0 +1,68 @@
+package com.bojan.bootcamp_01.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimitTest {
+    private final AtomicLong now = new AtomicLong();
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 5, 100, 1.5,
+            Duration.ofMillis(100), now::get);
+
+    /** Runs one window of {@code concurrent} overlapping requests with the given latency. */
+    private void window(int concurrent, long latencyMillis) {
+        long start = now.get();
+        int admitted = 0;
+        for (int i = 0; i < concurrent; i++) {
+            if (limit.tryAcquire()) {
+                admitted++;
+            }
+        }
+        now.addAndGet(Math.max(latencyMillis, 100) * 1_000_000);
+        for (int i = 0; i < admitted; i++) {
+            limit.release(start + (Math.max(latencyMillis, 100) - latencyMillis) * 1_000_000);
+        }
+    }
+
+    @Test
+    void rejectsBeyondTheLimit() {
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        assertFalse(limit.tryAcquire());
+        limit.cancel();
+        assertTrue(limit.tryAcquire());
+        assertEquals(20, limit.inFlight());
+    }
+
+    @Test
+    void growsWhileLatencyHoldsAndShrinksWhenItRises() {
+        for (int i = 0; i < 10; i++) {
+            window(limit.limit(), 10);
+        }
+        int grown = limit.limit();
+        assertTrue(grown > 20, "limit should grow under stable latency, was " + grown);
+
+        for (int i = 0; i < 10; i++) {
+            window(limit.limit(), 200);
+        }
+        assertTrue(limit.limit() < grown, "limit should shrink when latency rises, was " + limit.limit());
+    }
+
+    @Test
+    void doesNotGrowWhileMostlyIdle() {
+        // plenty of samples, but never more than one request at a time
+        for (int i = 0; i < 300; i++) {
+            assertTrue(limit.tryAcquire());
+            long start = now.get();
+            now.addAndGet(5_000_000);
+            limit.release(start);
+        }
+        assertEquals(20, limit.limit());
+    }
+}
@@ -0,0 +1,38 @@
+package com.bojan.bootcamp_01.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StripedSlidingWindowTest {
+
+    @Test
+    void weightsPreviousWindowByOverlap() {
+        AtomicLong now = new AtomicLong(60_000);
+        StripedSlidingWindow window = new StripedSlidingWindow(1024, Duration.ofMinutes(1), now::get);
+        for (int i = 0; i < 4; i++) {
+            window.increment("alice@example.com");
+        }
+        assertEquals(4, window.estimate("alice@example.com"));
+        assertEquals(0, window.estimate("bob@example.com"));
+
+        // a quarter into the next window, three quarters of the old count still apply
+        now.set(135_000);
+        assertEquals(3, window.estimate("alice@example.com"));
+        assertEquals(4, window.increment("alice@example.com"));
+
+        now.set(240_000);
+        assertEquals(0, window.estimate("alice@example.com"));
+    }
+
+    @Test
+    void clearResetsKey() {
+        StripedSlidingWindow window = new StripedSlidingWindow(1024, Duration.ofMinutes(1));
+        window.increment("10.0.0.1");
+        window.clear("10.0.0.1");
+        assertEquals(0, window.estimate("10.0.0.1"));
+    }
+}
@@ -0,0 +1,58 @@
+package com.bojan.bootcamp_01.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StripedTokenBucketTest {
+
+    @Test
+    void chargesCostAndRefillsOverTime() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        StripedTokenBucket buckets = new StripedTokenBucket(1024, 10, 5, now::get);
+
+        assertEquals(0, buckets.tryConsume("10.0.0.1", 6));
+        assertEquals(0, buckets.tryConsume("10.0.0.1", 4));
+        // empty: one token comes back every 200ms
+        assertEquals(200, buckets.tryConsume("10.0.0.1", 1));
+        assertEquals(0, buckets.tryConsume("10.0.0.2", 10));
+
+        now.addAndGet(100);
+        assertTrue(buckets.tryConsume("10.0.0.1", 1) > 0);
+        now.addAndGet(100);
+        assertEquals(0, buckets.tryConsume("10.0.0.1", 1));
+
+        now.addAndGet(60_000);
+        assertEquals(0, buckets.tryConsume("10.0.0.1", 10));
+        assertTrue(buckets.tryConsume("10.0.0.1", 1) > 0);
+    }
+
+    @Test
+    void frequentSmallRefillsAreNotLost() {
+        AtomicLong now = new AtomicLong(0);
+        StripedTokenBucket buckets = new StripedTokenBucket(1024, 1, 1, now::get);
+        assertEquals(0, buckets.tryConsume("client", 1));
+        // polling every millisecond adds a fraction of a unit each time
+        for (int i = 0; i < 999; i++) {
+            now.incrementAndGet();
+            assertTrue(buckets.tryConsume("client", 1) > 0);
+        }
+        now.addAndGet(2);
+        assertEquals(0, buckets.tryConsume("client", 1));
+    }
+
+    @Test
+    void drainChargesUsageFromElsewhere() {
+        AtomicLong now = new AtomicLong(0);
+        StripedTokenBucket buckets = new StripedTokenBucket(1, 10, 1, now::get);
+        buckets.drain("client", 8);
+        assertEquals(0, buckets.tryConsume("client", 2));
+        assertTrue(buckets.tryConsume("client", 1) > 0);
+        buckets.drain("client", 100);
+        now.addAndGet(1000);
+        assertEquals(0, buckets.tryConsume("client", 1));
+    }
+}
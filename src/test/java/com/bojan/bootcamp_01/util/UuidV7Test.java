@@ -0,0 +1,25 @@
+package com.bojan.bootcamp_01.util;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidV7Test {
+
+    @Test
+    void idsAreVersion7AndStrictlyIncreasing() {
+        long before = System.currentTimeMillis();
+        UUID previous = UuidV7.next();
+        for (int i = 0; i < 10_000; i++) {
+            UUID next = UuidV7.next();
+            assertEquals(7, next.version());
+            assertEquals(2, next.variant());
+            assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), next.getMostSignificantBits()) < 0);
+            previous = next;
+        }
+        assertTrue(UuidV7.timestamp(previous) >= before);
+    }
+}